@@ -20,6 +20,7 @@ plugins {
     id("org.jetbrains.kotlin.plugin.spring") version kotlinVersion
     id("org.jetbrains.kotlin.plugin.jpa") version kotlinVersion
     id("io.spring.dependency-management") version "1.0.6.RELEASE"
+    id("me.champeau.gradle.jmh") version "0.5.0"
 }
 
 java {
@@ -46,12 +47,15 @@ dependencies {
         exclude(module = "spring-boot-starter-logging")
     }
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
-//    implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-actuator") {
+        exclude(module = "spring-boot-starter-logging")
+    }
 
 //    implementation("org.springframework.boot:spring-boot-starter-web:2.2.2.RELEASE")
 //    implementation("org.springframework.boot:spring-boot-starter-actuator:2.2.2.RELEASE")
     implementation("com.google.guava:guava:28.0-jre")
     implementation("com.lmax:disruptor:3.4.2")
+    implementation("org.ow2.asm:asm:7.2")
 //    implementation("com.j256.simplejmx:simplejmx:1.17")
 //    implementation("org.springframework:spring-context:4.0.2.RELEASE")
 //    implementation("org.jminix:jminix:1.2.0")
@@ -62,6 +66,14 @@ dependencies {
     testImplementation("junit:junit:4.12")
 }
 
+// ./gradlew jmh --offline (once dependencies are cached), results go to build/reports/jmh
+jmh {
+    jmhVersion = "1.21"
+    resultFormat = "JSON"
+    resultsFile = file("$buildDir/reports/jmh/results.json")
+    humanOutputFile = file("$buildDir/reports/jmh/human.txt")
+}
+
 application {
     mainClassName = "com.disactor.pitches.Pitches"
 }
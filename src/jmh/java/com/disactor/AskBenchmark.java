@@ -0,0 +1,73 @@
+package com.disactor;
+
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request/reply round trip through {@link Disactor#ask}, by how the caller waits. Run with {@code -prof gc}
+ * to check that a round trip does not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AskBenchmark {
+
+    @Param({"SPIN", "PARK"})
+    private Promise.Wait wait;
+
+    private final Request request = new Request();
+    private Disactor<Request> disactor;
+
+    @Setup
+    public void setUp() {
+        disactor = Disactor.<Request>builder()
+                .eventFactory(Request::new)
+                .bufferSize(1024)
+                .producerType(ProducerType.SINGLE)
+                .waitStrategy(new YieldingWaitStrategy())
+                .actor(request -> request.reply(request))
+                .build();
+        disactor.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        disactor.stop();
+    }
+
+    @Benchmark
+    public Object ask() {
+        return disactor.ask(request, wait);
+    }
+
+    public static class Request implements Event<Request>, Askable<Request> {
+
+        private final Trace trace = new Trace(0);
+        private Promise<Request> promise;
+
+        @Override
+        public Promise<Request> getPromise() {
+            return promise;
+        }
+
+        @Override
+        public void setPromise(Promise<Request> promise) {
+            this.promise = promise;
+        }
+
+        @Override
+        public Trace getTrace() {
+            return trace;
+        }
+
+        @Override
+        public void copyFrom(Request from) {
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.disactor;
+
+import com.lmax.disruptor.FatalExceptionHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisactorBatchBenchmark {
+
+    @Param({"1", "50", "500"})
+    private int burst;
+
+    private ExecutorService executor;
+    private Disactor<BenchEvent> disactor;
+    private BenchEvent[] events;
+
+    @Setup
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        disactor = new Disactor<>(BenchEvent::new, 64 * 1024, new FatalExceptionHandler(), executor, event -> {
+        });
+        disactor.start();
+        events = new BenchEvent[burst];
+        for (int i = 0; i < burst; i++) {
+            events[i] = new BenchEvent();
+            events[i].value = i;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        disactor.stop();
+        executor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(500)
+    public void perEvent() {
+        for (int i = 0; i < 500; i++) {
+            disactor.onEvent(events[i % burst]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(500)
+    public void batched() {
+        for (int i = 0; i < 500; i += burst) {
+            disactor.onEvents(events, 0, burst);
+        }
+    }
+
+    public static class BenchEvent implements Event<BenchEvent> {
+
+        private final Trace trace = new Trace(0);
+        private long value;
+
+        @Override
+        public Trace getTrace() {
+            return trace;
+        }
+
+        @Override
+        public void copyFrom(BenchEvent from) {
+            value = from.value;
+        }
+    }
+}
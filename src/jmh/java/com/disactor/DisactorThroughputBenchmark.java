@@ -0,0 +1,72 @@
+package com.disactor;
+
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Disactor#onEvent} throughput with one producer on a SINGLE sequencer and four producers on a MULTI one.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisactorThroughputBenchmark {
+
+    public abstract static class DisactorState {
+
+        Disactor<DisactorBatchBenchmark.BenchEvent> disactor;
+        final DisactorBatchBenchmark.BenchEvent event = new DisactorBatchBenchmark.BenchEvent();
+
+        @Setup
+        public void setUp() {
+            disactor = Disactor.<DisactorBatchBenchmark.BenchEvent>builder()
+                    .eventFactory(DisactorBatchBenchmark.BenchEvent::new)
+                    .bufferSize(64 * 1024)
+                    .producerType(producerType())
+                    .waitStrategy(new YieldingWaitStrategy())
+                    .actor(e -> {
+                    })
+                    .build();
+            disactor.start();
+        }
+
+        @TearDown
+        public void tearDown() {
+            disactor.stop();
+        }
+
+        abstract ProducerType producerType();
+    }
+
+    @State(Scope.Benchmark)
+    public static class SingleProducer extends DisactorState {
+        @Override
+        ProducerType producerType() {
+            return ProducerType.SINGLE;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class MultiProducer extends DisactorState {
+        @Override
+        ProducerType producerType() {
+            return ProducerType.MULTI;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void singleProducer(SingleProducer state) {
+        state.disactor.onEvent(state.event);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void multiProducer(MultiProducer state) {
+        state.disactor.onEvent(state.event);
+    }
+}
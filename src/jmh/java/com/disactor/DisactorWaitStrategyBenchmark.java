@@ -0,0 +1,84 @@
+package com.disactor;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Producer type x wait strategy matrix. The throughput benchmark shows the cost of the sequencer,
+ * the round trip benchmark shows the wake-up latency of the consumer. Run with {@code -prof perfnorm}
+ * (or watch the consumer thread in top) to see the CPU the spinning strategies burn while idle.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisactorWaitStrategyBenchmark {
+
+    @Param({"SINGLE", "MULTI"})
+    private ProducerType producerType;
+
+    @Param({"blocking", "sleeping", "yielding", "busySpin"})
+    private String waitStrategy;
+
+    private final AtomicLong handled = new AtomicLong();
+    private Disactor<DisactorBatchBenchmark.BenchEvent> disactor;
+    private DisactorBatchBenchmark.BenchEvent event;
+    private long published;
+
+    @Setup
+    public void setUp() {
+        disactor = Disactor.<DisactorBatchBenchmark.BenchEvent>builder()
+                .eventFactory(DisactorBatchBenchmark.BenchEvent::new)
+                .bufferSize(64 * 1024)
+                .producerType(producerType)
+                .waitStrategy(createWaitStrategy(waitStrategy))
+                .actor(e -> handled.lazySet(handled.get() + 1))
+                .build();
+        disactor.start();
+        event = new DisactorBatchBenchmark.BenchEvent();
+    }
+
+    @TearDown
+    public void tearDown() {
+        disactor.stop();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void throughput() {
+        disactor.onEvent(event);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void roundTrip() {
+        disactor.onEvent(event);
+        long expected = ++published;
+        while (handled.get() < expected) {
+            // wait for the actor to see the event
+        }
+    }
+
+    private static WaitStrategy createWaitStrategy(String name) {
+        switch (name) {
+            case "sleeping":
+                return new SleepingWaitStrategy();
+            case "yielding":
+                return new YieldingWaitStrategy();
+            case "busySpin":
+                return new BusySpinWaitStrategy();
+            default:
+                return new BlockingWaitStrategy();
+        }
+    }
+}
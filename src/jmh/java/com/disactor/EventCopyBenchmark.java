@@ -0,0 +1,54 @@
+package com.disactor;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@link EventImpl#copyFrom} every hop pays, by number of trace entries carried and trace mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventCopyBenchmark {
+
+    @Param({"0", "4", "16", "64"})
+    private int hops;
+
+    @Param({"FIXED", "LAZY"})
+    private String traceMode;
+
+    private HopEvent from;
+    private HopEvent to;
+
+    @Setup
+    public void setUp() {
+        System.setProperty("com.disactor.trace.mode", traceMode);
+        from = new HopEvent();
+        to = new HopEvent();
+        for (int i = 0; i < hops; i++) {
+            from.getTrace().add(i, System.nanoTime());
+        }
+        from.value = 42;
+    }
+
+    @Benchmark
+    public HopEvent copyFrom() {
+        to.copyFrom(from);
+        return to;
+    }
+
+    public static class HopEvent extends EventImpl<HopEvent> {
+
+        private long value;
+
+        @Override
+        public void copyFrom(HopEvent from) {
+            super.copyFrom(from);
+            value = from.value;
+        }
+    }
+}
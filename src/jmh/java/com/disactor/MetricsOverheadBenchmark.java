@@ -0,0 +1,62 @@
+package com.disactor;
+
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot path cost of latency metrics: publish throughput and publish-to-handle round trip with them off,
+ * on for every event and sampled 1 in 64.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    @Param({"0", "1", "64"})
+    private int latencySampling;
+
+    private final DisactorBatchBenchmark.BenchEvent event = new DisactorBatchBenchmark.BenchEvent();
+    private Disactor<DisactorBatchBenchmark.BenchEvent> disactor;
+    private volatile long handled;
+    private long published;
+
+    @Setup
+    public void setUp() {
+        disactor = Disactor.<DisactorBatchBenchmark.BenchEvent>builder()
+                .eventFactory(DisactorBatchBenchmark.BenchEvent::new)
+                .bufferSize(64 * 1024)
+                .producerType(ProducerType.SINGLE)
+                .waitStrategy(new YieldingWaitStrategy())
+                .latencyMetrics(latencySampling)
+                .actor(e -> handled++)
+                .build();
+        disactor.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        disactor.stop();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void publish() {
+        disactor.onEvent(event);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void roundTrip() {
+        long expected = ++published;
+        disactor.onEvent(event);
+        while (handled < expected) {
+            // wait for the actor
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.disactor;
+
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip caller -> ping -> pong -> caller. SampleTime mode reports the latency histogram percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PingPongBenchmark {
+
+    private final DisactorBatchBenchmark.BenchEvent event = new DisactorBatchBenchmark.BenchEvent();
+    private Disactor<DisactorBatchBenchmark.BenchEvent> ping;
+    private Disactor<DisactorBatchBenchmark.BenchEvent> pong;
+    private volatile long ponged;
+    private long pinged;
+
+    @Setup
+    public void setUp() {
+        pong = create(e -> ponged++);
+        ping = create(pong);
+        pong.start();
+        ping.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ping.stop();
+        pong.stop();
+    }
+
+    @Benchmark
+    public void roundTrip() {
+        long expected = ++pinged;
+        ping.onEvent(event);
+        while (ponged < expected) {
+            // wait for the pong
+        }
+    }
+
+    private static Disactor<DisactorBatchBenchmark.BenchEvent> create(Actor<DisactorBatchBenchmark.BenchEvent> actor) {
+        return Disactor.<DisactorBatchBenchmark.BenchEvent>builder()
+                .eventFactory(DisactorBatchBenchmark.BenchEvent::new)
+                .bufferSize(1024)
+                .producerType(ProducerType.SINGLE)
+                .waitStrategy(new YieldingWaitStrategy())
+                .actor(actor)
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.disactor;
+
+import com.lmax.disruptor.YieldingWaitStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a CPU-bound actor as the number of shards grows. Scaling stops at the number of free cores
+ * left after the producer threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ShardedDisactorBenchmark {
+
+    @Param({"1", "2", "4", "8", "16"})
+    private int shards;
+
+    @Param({"200"})
+    private int workTokens;
+
+    private ShardedDisactor<DisactorBatchBenchmark.BenchEvent> sharded;
+
+    @Setup
+    public void setUp() {
+        sharded = new ShardedDisactor<>(
+                shards,
+                shard -> Disactor.<DisactorBatchBenchmark.BenchEvent>builder()
+                        .eventFactory(DisactorBatchBenchmark.BenchEvent::new)
+                        .bufferSize(16 * 1024)
+                        .waitStrategy(new YieldingWaitStrategy())
+                        .actor(event -> Blackhole.consumeCPU(workTokens))
+                        .build(),
+                DisactorBatchBenchmark.BenchEvent::hashCode);
+        sharded.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sharded.stop();
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+
+        private final DisactorBatchBenchmark.BenchEvent[] events = new DisactorBatchBenchmark.BenchEvent[1024];
+        private int next;
+
+        @Setup
+        public void setUp() {
+            for (int i = 0; i < events.length; i++) {
+                events[i] = new DisactorBatchBenchmark.BenchEvent();
+            }
+        }
+    }
+
+    @Benchmark
+    public void publish(Producer producer) {
+        DisactorBatchBenchmark.BenchEvent[] events = producer.events;
+        sharded.onEvent(events[producer.next++ & (events.length - 1)]);
+    }
+}
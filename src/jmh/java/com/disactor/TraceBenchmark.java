@@ -0,0 +1,120 @@
+package com.disactor;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flat {@link Trace}, in fixed and lazy mode, against the previous object-tree layout (one child
+ * object per level, copied node by node). Run with {@code -prof gc}: gc.alloc.rate.norm of the allocate benchmarks is the
+ * heap footprint of one event's trace.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TraceBenchmark {
+
+    @Param({"64", "1024"})
+    private int depth;
+
+    @Param({"1", "8", "64"})
+    private int filled;
+
+    private Trace flatFrom;
+    private Trace flatTo;
+    private Trace lazyFrom;
+    private Trace lazyTo;
+    private Trace untraced;
+    private TreeTrace treeFrom;
+    private TreeTrace treeTo;
+
+    @Setup
+    public void setUp() {
+        flatFrom = new Trace(depth);
+        flatTo = new Trace(depth);
+        treeFrom = new TreeTrace(depth);
+        treeTo = new TreeTrace(depth);
+        lazyFrom = new Trace(depth, Trace.Mode.LAZY);
+        lazyTo = new Trace(depth, Trace.Mode.LAZY);
+        untraced = new Trace(depth, Trace.Mode.LAZY);
+        for (int i = 0; i < filled; i++) {
+            flatFrom.add(i, System.nanoTime());
+            lazyFrom.add(i, System.nanoTime());
+            treeFrom.add(i, System.nanoTime());
+        }
+    }
+
+    @Benchmark
+    public Trace copyFlat() {
+        flatTo.copyFrom(flatFrom);
+        return flatTo;
+    }
+
+    @Benchmark
+    public Trace copyLazy() {
+        lazyTo.copyFrom(lazyFrom);
+        return lazyTo;
+    }
+
+    @Benchmark
+    public Trace copyUntraced() {
+        lazyTo.copyFrom(untraced);
+        return lazyTo;
+    }
+
+    @Benchmark
+    public TreeTrace copyTree() {
+        treeTo.copyFrom(treeFrom);
+        return treeTo;
+    }
+
+    @Benchmark
+    public Trace allocateFlat() {
+        return new Trace(depth);
+    }
+
+    @Benchmark
+    public Trace allocateLazy() {
+        return new Trace(depth, Trace.Mode.LAZY);
+    }
+
+    @Benchmark
+    public TreeTrace allocateTree() {
+        return new TreeTrace(depth);
+    }
+
+    public static class TreeTrace {
+
+        private final Node[] nested;
+        private int lastN = 0;
+
+        TreeTrace(int depth) {
+            nested = new Node[depth];
+            for (int i = 0; i < depth; i++) {
+                nested[i] = new Node();
+            }
+        }
+
+        void add(long spanId, long timestamp) {
+            Node node = nested[lastN++];
+            node.spanId = spanId;
+            node.timestamp = timestamp;
+        }
+
+        void copyFrom(TreeTrace from) {
+            for (int i = 0; i < nested.length; i++) {
+                nested[i].spanId = from.nested[i].spanId;
+                nested[i].timestamp = from.nested[i].timestamp;
+            }
+            lastN = from.lastN;
+        }
+    }
+
+    static class Node {
+        long spanId;
+        long timestamp;
+    }
+}
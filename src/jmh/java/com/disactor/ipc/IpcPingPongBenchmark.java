@@ -0,0 +1,170 @@
+package com.disactor.ipc;
+
+import com.disactor.EventCodec;
+import com.disactor.EventImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip to an echo process in a second JVM on the same box, over a pair of {@link SharedMemoryRing}s
+ * in /dev/shm versus loopback TCP with TCP_NODELAY. SampleTime mode reports the latency percentiles.
+ * Both sides yield while idle so that the comparison still means something on a single core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IpcPingPongBenchmark {
+
+    private static final int SLOT_SIZE = 64;
+    private static final int SLOTS = 1024;
+
+    static final EventCodec<PingEvent> CODEC = new EventCodec<PingEvent>() {
+        @Override
+        public void encode(PingEvent event, ByteBuffer to) {
+            to.putLong(event.value);
+        }
+
+        @Override
+        public void decode(ByteBuffer from, PingEvent to) {
+            to.value = from.getLong();
+        }
+    };
+
+    @Param({"SHM", "TCP"})
+    private String transport;
+
+    private Process echo;
+    private Path pingPath;
+    private Path pongPath;
+    private SharedMemoryProducer<PingEvent> ping;
+    private SharedMemoryConsumer<PingEvent> pong;
+    private Socket socket;
+    private DataOutputStream out;
+    private DataInputStream in;
+    private final PingEvent event = new PingEvent();
+    private long ponged;
+    private long pinged;
+
+    @Setup
+    public void setUp() throws IOException {
+        if (transport.equals("SHM")) {
+            String name = "disactor-bench-" + System.nanoTime();
+            pingPath = SharedMemoryRing.defaultPath(name + "-ping");
+            pongPath = SharedMemoryRing.defaultPath(name + "-pong");
+            ping = new SharedMemoryProducer<>(pingPath, SLOT_SIZE, SLOTS, CODEC);
+            pong = new SharedMemoryConsumer<>(pongPath, SLOT_SIZE, SLOTS, CODEC, PingEvent::new, e -> ponged = e.value);
+            echo = startEcho("SHM", pingPath.toString(), pongPath.toString());
+        } else {
+            echo = startEcho("TCP");
+            int port = Integer.parseInt(new BufferedReader(new InputStreamReader(echo.getInputStream())).readLine());
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            out = new DataOutputStream(socket.getOutputStream());
+            in = new DataInputStream(socket.getInputStream());
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        echo.destroy();
+        echo.waitFor();
+        if (socket != null) {
+            socket.close();
+        }
+        if (pingPath != null) {
+            ping.close();
+            pong.close();
+            Files.deleteIfExists(pingPath);
+            Files.deleteIfExists(pongPath);
+        }
+    }
+
+    @Benchmark
+    public long roundTrip() throws IOException {
+        long expected = ++pinged;
+        if (ping != null) {
+            event.value = expected;
+            ping.onEvent(event);
+            while (ponged != expected) {
+                if (pong.poll() == 0) {
+                    Thread.yield();
+                }
+            }
+            return ponged;
+        }
+        out.writeLong(expected);
+        out.flush();
+        return in.readLong();
+    }
+
+    private static Process startEcho(String... args) throws IOException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        String[] command = new String[args.length + 4];
+        command[0] = java;
+        command[1] = "-cp";
+        command[2] = System.getProperty("java.class.path");
+        command[3] = Echo.class.getName();
+        System.arraycopy(args, 0, command, 4, args.length);
+        return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    /**
+     * The second JVM, sends back every event it receives.
+     */
+    public static class Echo {
+
+        public static void main(String[] args) throws Exception {
+            if (args[0].equals("SHM")) {
+                SharedMemoryProducer<PingEvent> pong = new SharedMemoryProducer<>(
+                        Paths.get(args[2]), SLOT_SIZE, SLOTS, CODEC);
+                SharedMemoryConsumer<PingEvent> ping = new SharedMemoryConsumer<>(
+                        Paths.get(args[1]), SLOT_SIZE, SLOTS, CODEC, PingEvent::new, pong);
+                while (true) {
+                    if (ping.poll() == 0) {
+                        Thread.yield();
+                    }
+                }
+            }
+            try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                System.out.println(server.getLocalPort());
+                System.out.flush();
+                try (Socket socket = server.accept()) {
+                    socket.setTcpNoDelay(true);
+                    DataInputStream in = new DataInputStream(socket.getInputStream());
+                    DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                    while (true) {
+                        out.writeLong(in.readLong());
+                        out.flush();
+                    }
+                }
+            }
+        }
+    }
+
+    public static class PingEvent extends EventImpl<PingEvent> {
+
+        private long value;
+
+        @Override
+        public void copyFrom(PingEvent from) {
+            super.copyFrom(from);
+            value = from.value;
+        }
+    }
+}
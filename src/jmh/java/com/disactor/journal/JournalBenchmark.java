@@ -0,0 +1,77 @@
+package com.disactor.journal;
+
+import com.disactor.EventCodec;
+import com.disactor.EventImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journal appends per second with batches of 100 events, by fsync policy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JournalBenchmark {
+
+    private static final int BATCH = 100;
+
+    private static final EventCodec<BenchEvent> CODEC = new EventCodec<BenchEvent>() {
+        @Override
+        public void encode(BenchEvent event, ByteBuffer to) {
+            to.putLong(event.value);
+        }
+
+        @Override
+        public void decode(ByteBuffer from, BenchEvent to) {
+            to.value = from.getLong();
+        }
+    };
+
+    @Param({"NONE", "PERIODIC"})
+    private FsyncPolicy fsyncPolicy;
+
+    private Path directory;
+    private Journal<BenchEvent> journal;
+    private final BenchEvent event = new BenchEvent();
+    private long sequence;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-bench");
+        journal = new Journal<>(directory, 64 << 20, CODEC, fsyncPolicy, 10, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.close();
+        Files.walk(directory).sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void append() {
+        for (int i = 0; i < BATCH; i++) {
+            event.value = sequence;
+            journal.onEvent(event, sequence++, i == BATCH - 1);
+        }
+    }
+
+    public static class BenchEvent extends EventImpl<BenchEvent> {
+
+        private long value;
+
+        @Override
+        public void copyFrom(BenchEvent from) {
+            super.copyFrom(from);
+            value = from.value;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.disactor.lazy;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hand-written copy against a reflective field-by-field copy and the generated {@link MagicCopyable} copy.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MagicCopyableBenchmark {
+
+    private final Fields5 from5 = new Fields5();
+    private final Fields5 to5 = new Fields5();
+    private final Fields20 from20 = new Fields20();
+    private final Fields20 to20 = new Fields20();
+    private final Fields50 from50 = new Fields50();
+    private final Fields50 to50 = new Fields50();
+    private final Field[] fields5 = instanceFields(Fields5.class);
+    private final Field[] fields20 = instanceFields(Fields20.class);
+    private final Field[] fields50 = instanceFields(Fields50.class);
+
+    @Benchmark
+    public Object handWritten5() {
+        to5.copyByHand(from5);
+        return to5;
+    }
+
+    @Benchmark
+    public Object reflective5() throws IllegalAccessException {
+        copyReflectively(fields5, to5, from5);
+        return to5;
+    }
+
+    @Benchmark
+    public Object generated5() {
+        to5.copyFrom(from5);
+        return to5;
+    }
+
+    @Benchmark
+    public Object handWritten20() {
+        to20.copyByHand(from20);
+        return to20;
+    }
+
+    @Benchmark
+    public Object reflective20() throws IllegalAccessException {
+        copyReflectively(fields20, to20, from20);
+        return to20;
+    }
+
+    @Benchmark
+    public Object generated20() {
+        to20.copyFrom(from20);
+        return to20;
+    }
+
+    @Benchmark
+    public Object handWritten50() {
+        to50.copyByHand(from50);
+        return to50;
+    }
+
+    @Benchmark
+    public Object reflective50() throws IllegalAccessException {
+        copyReflectively(fields50, to50, from50);
+        return to50;
+    }
+
+    @Benchmark
+    public Object generated50() {
+        to50.copyFrom(from50);
+        return to50;
+    }
+
+    private static void copyReflectively(Field[] fields, Object to, Object from) throws IllegalAccessException {
+        for (Field field : fields) {
+            field.set(to, field.get(from));
+        }
+    }
+
+    private static Field[] instanceFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers())) {
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        return fields.toArray(new Field[0]);
+    }
+
+    public static class Fields5 extends MagicCopyable<Fields5> {
+        long f0;
+        int f1;
+        double f2;
+        Object f3;
+        long f4;
+
+        void copyByHand(Fields5 from) {
+            f0 = from.f0;
+            f1 = from.f1;
+            f2 = from.f2;
+            f3 = from.f3;
+            f4 = from.f4;
+        }
+    }
+
+    public static class Fields20 extends MagicCopyable<Fields20> {
+        long f0;
+        int f1;
+        double f2;
+        Object f3;
+        long f4;
+        int f5;
+        double f6;
+        Object f7;
+        long f8;
+        int f9;
+        double f10;
+        Object f11;
+        long f12;
+        int f13;
+        double f14;
+        Object f15;
+        long f16;
+        int f17;
+        double f18;
+        Object f19;
+
+        void copyByHand(Fields20 from) {
+            f0 = from.f0;
+            f1 = from.f1;
+            f2 = from.f2;
+            f3 = from.f3;
+            f4 = from.f4;
+            f5 = from.f5;
+            f6 = from.f6;
+            f7 = from.f7;
+            f8 = from.f8;
+            f9 = from.f9;
+            f10 = from.f10;
+            f11 = from.f11;
+            f12 = from.f12;
+            f13 = from.f13;
+            f14 = from.f14;
+            f15 = from.f15;
+            f16 = from.f16;
+            f17 = from.f17;
+            f18 = from.f18;
+            f19 = from.f19;
+        }
+    }
+
+    public static class Fields50 extends MagicCopyable<Fields50> {
+        long f0;
+        int f1;
+        double f2;
+        Object f3;
+        long f4;
+        int f5;
+        double f6;
+        Object f7;
+        long f8;
+        int f9;
+        double f10;
+        Object f11;
+        long f12;
+        int f13;
+        double f14;
+        Object f15;
+        long f16;
+        int f17;
+        double f18;
+        Object f19;
+        long f20;
+        int f21;
+        double f22;
+        Object f23;
+        long f24;
+        int f25;
+        double f26;
+        Object f27;
+        long f28;
+        int f29;
+        double f30;
+        Object f31;
+        long f32;
+        int f33;
+        double f34;
+        Object f35;
+        long f36;
+        int f37;
+        double f38;
+        Object f39;
+        long f40;
+        int f41;
+        double f42;
+        Object f43;
+        long f44;
+        int f45;
+        double f46;
+        Object f47;
+        long f48;
+        int f49;
+
+        void copyByHand(Fields50 from) {
+            f0 = from.f0;
+            f1 = from.f1;
+            f2 = from.f2;
+            f3 = from.f3;
+            f4 = from.f4;
+            f5 = from.f5;
+            f6 = from.f6;
+            f7 = from.f7;
+            f8 = from.f8;
+            f9 = from.f9;
+            f10 = from.f10;
+            f11 = from.f11;
+            f12 = from.f12;
+            f13 = from.f13;
+            f14 = from.f14;
+            f15 = from.f15;
+            f16 = from.f16;
+            f17 = from.f17;
+            f18 = from.f18;
+            f19 = from.f19;
+            f20 = from.f20;
+            f21 = from.f21;
+            f22 = from.f22;
+            f23 = from.f23;
+            f24 = from.f24;
+            f25 = from.f25;
+            f26 = from.f26;
+            f27 = from.f27;
+            f28 = from.f28;
+            f29 = from.f29;
+            f30 = from.f30;
+            f31 = from.f31;
+            f32 = from.f32;
+            f33 = from.f33;
+            f34 = from.f34;
+            f35 = from.f35;
+            f36 = from.f36;
+            f37 = from.f37;
+            f38 = from.f38;
+            f39 = from.f39;
+            f40 = from.f40;
+            f41 = from.f41;
+            f42 = from.f42;
+            f43 = from.f43;
+            f44 = from.f44;
+            f45 = from.f45;
+            f46 = from.f46;
+            f47 = from.f47;
+            f48 = from.f48;
+            f49 = from.f49;
+        }
+    }
+}
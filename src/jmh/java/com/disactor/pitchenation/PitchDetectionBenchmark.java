@@ -0,0 +1,67 @@
+package com.disactor.pitchenation;
+
+import be.tarsos.dsp.AudioDispatcher;
+import be.tarsos.dsp.io.jvm.AudioDispatcherFactory;
+import be.tarsos.dsp.pitch.PitchProcessor.PitchEstimationAlgorithm;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Analysed frames per second of each pitch detection algorithm by analysis window
+ * ({@code sampleRate/bufferSize/hopSize}), reported as {@code frames}. Every invocation slides the window over
+ * half a second of notes; real time needs at least {@link AnalysisWindow#getFramesPerSecond()} frames/s.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PitchDetectionBenchmark {
+
+    private static final Pitch[] NOTES = {Pitch.La3, Pitch.Do5, Pitch.Mi4, Pitch.So2, Pitch.Si5};
+
+    @Param({"YIN", "MPM", "FFT_YIN", "DYNAMIC_WAVELET", "FFT_PITCH", "AMDF"})
+    private PitchEstimationAlgorithm algorithm;
+
+    @Param({"44100/1024/1024", "44100/1024/256", "44100/2048/220"})
+    private String window;
+
+    private AnalysisWindow analysisWindow;
+    private float[] signal;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Frames {
+        public long frames;
+        public long detected;
+    }
+
+    @Setup
+    public void setUp() {
+        analysisWindow = AnalysisWindow.parse(window);
+        float sampleRate = analysisWindow.getSampleRate();
+        signal = new float[Math.round(sampleRate / 2)];
+        int noteLength = signal.length / NOTES.length;
+        for (int i = 0; i < signal.length; i++) {
+            double phase = 2 * Math.PI * NOTES[Math.min(i / noteLength, NOTES.length - 1)].getPitch() * i / sampleRate;
+            signal[i] = (float) (0.5 * Math.sin(phase) + 0.2 * Math.sin(2 * phase));
+        }
+    }
+
+    @Benchmark
+    public void slide(Frames frames) throws UnsupportedAudioFileException {
+        AudioDispatcher dispatcher = AudioDispatcherFactory.fromFloatArray(
+                signal, Math.round(analysisWindow.getSampleRate()), analysisWindow.getBufferSize(), analysisWindow.getOverlap());
+        dispatcher.addAudioProcessor(analysisWindow.newPitchProcessor(algorithm, (result, event) -> {
+            frames.frames++;
+            if (result.isPitched()) {
+                frames.detected++;
+            }
+        }));
+        dispatcher.run();
+    }
+
+}
@@ -0,0 +1,97 @@
+package com.disactor.scheduler;
+
+import com.disactor.Actor;
+import com.disactor.Disactor;
+import com.disactor.DisactorBatchBenchmark.BenchEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One event to each of many mostly idle actors per invocation: mailboxes on a shared scheduler versus a
+ * dedicated {@link Disactor} per actor. The setup prints the heap retained by the actors and the live threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(java.util.concurrent.TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ManyActorsBenchmark {
+
+    private static final int MAILBOX_CAPACITY = 16;
+
+    @Param({"10000"})
+    private int actors;
+
+    @Param({"SCHEDULER", "DISACTOR"})
+    private String mode;
+
+    @Param({"4"})
+    private int threads;
+
+    private final AtomicLong handled = new AtomicLong();
+    private final BenchEvent event = new BenchEvent();
+    private final List<Actor<BenchEvent>> inboxes = new ArrayList<>();
+    private final List<Disactor<BenchEvent>> disactors = new ArrayList<>();
+    private ActorScheduler scheduler;
+    private long sent;
+
+    @Setup
+    public void setUp() {
+        long heapBefore = usedHeap();
+        int threadsBefore = Thread.activeCount();
+        Actor<BenchEvent> actor = e -> handled.incrementAndGet();
+        if (mode.equals("SCHEDULER")) {
+            scheduler = ActorScheduler.virtualThreads(threads);
+            for (int i = 0; i < actors; i++) {
+                inboxes.add(scheduler.mailbox(BenchEvent::new, MAILBOX_CAPACITY, actor));
+            }
+        } else {
+            for (int i = 0; i < actors; i++) {
+                Disactor<BenchEvent> disactor = Disactor.<BenchEvent>builder()
+                        .eventFactory(BenchEvent::new)
+                        .bufferSize(MAILBOX_CAPACITY)
+                        .actor(actor)
+                        .build();
+                disactor.start();
+                disactors.add(disactor);
+                inboxes.add(disactor::onEvent);
+            }
+        }
+        System.out.printf("%n%s: %d actors retain %d KB of heap, %d extra threads%n",
+                mode, actors, (usedHeap() - heapBefore) / 1024, Thread.activeCount() - threadsBefore);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.stop();
+        }
+        for (Disactor<BenchEvent> disactor : disactors) {
+            disactor.stop();
+        }
+    }
+
+    @Benchmark
+    public long sendToEveryActor() {
+        for (Actor<BenchEvent> inbox : inboxes) {
+            inbox.onEvent(event);
+        }
+        sent += inboxes.size();
+        while (handled.get() < sent) {
+            Thread.yield();
+        }
+        return sent;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,26 @@
+package com.disactor;
+
+/**
+ * Event that carries a reply slot, so it can be sent with {@link Disactor#ask}. The slot is set on the ring
+ * buffer event after {@link Event#copyFrom}, copyFrom does not need to copy it.
+ *
+ * @param <R> type of the reply
+ */
+public interface Askable<R> {
+
+    Promise<R> getPromise();
+
+    void setPromise(Promise<R> promise);
+
+    /**
+     * Completes the pending request, if the event was sent with {@link Disactor#ask}.
+     */
+    default void reply(R value) {
+        Promise<R> promise = getPromise();
+        if (promise != null) {
+            setPromise(null);
+            promise.complete(value);
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.disactor;
+
+/**
+ * Actor that also sees the ring buffer batches, e.g. to flush a socket or file once per batch
+ * instead of once per event. Under light load every batch holds a single event, so nothing is delayed.
+ */
+public interface BatchAwareActor<EVENT extends Event<EVENT>> extends Actor<EVENT> {
+
+    /**
+     * @param endOfBatch true for the last event available before the actor would have to wait
+     */
+    void onEvent(EVENT event, long sequence, boolean endOfBatch);
+
+    /**
+     * Called before the first event of each batch.
+     */
+    default void onBatchStart(long batchSize) {
+    }
+
+    /**
+     * Direct calls, outside of a {@link Disactor}, are batches of one.
+     */
+    @Override
+    default void onEvent(EVENT event) {
+        onBatchStart(1);
+        onEvent(event, -1, true);
+    }
+
+}
@@ -1,35 +1,209 @@
 package com.disactor;
 
+import com.disactor.metrics.DisactorMetrics;
+import com.disactor.metrics.LatencyHistogram;
+import com.disactor.metrics.TraceCollector;
+import com.lmax.disruptor.AlertException;
+import com.lmax.disruptor.BatchStartAware;
+import com.lmax.disruptor.BlockingWaitStrategy;
 import com.lmax.disruptor.EventFactory;
 import com.lmax.disruptor.EventHandler;
 import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.FatalExceptionHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceBarrier;
+import com.lmax.disruptor.SequenceReportingEventHandler;
+import com.lmax.disruptor.WaitStrategy;
 import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.EventHandlerGroup;
+import com.lmax.disruptor.dsl.ProducerType;
+import com.lmax.disruptor.util.DaemonThreadFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.UnaryOperator;
 
 public class Disactor<EVENT extends Event<EVENT>> implements Actor<EVENT>{
 
+    private static final int SPIN_TRIES = 100;
+    private static final long PARK_NANOS = 1000;
+    private static final int PENDING_SAMPLES = 64;
+    // states of a Generation
+    private static final int ACTIVE = 0;
+    private static final int RETIRING = 1;
+    private static final int RETIRED = 2;
+    private static final int STOPPING = 3;
+    private static final int STOPPED = 4;
 
-    private final Disruptor<EVENT> disruptor;
+    private volatile Generation generation;
+    private final DisruptorFactory<EVENT> disruptorFactory;
+    private final boolean resizable;
+    private final boolean askable;
+    private final ExceptionHandler<? super EVENT> exceptionHandler;
+    private final List<? extends List<? extends Actor<EVENT>>> stages;
+    private final OverflowPolicy overflowPolicy;
+    private final long overflowTimeoutNanos;
+    private final LongAdder rejected = new LongAdder();
+    private final ThreadLocal<Promise<Object>> promises = ThreadLocal.withInitial(Promise::new);
+    private final int latencySampling;
+    private final long sampleMask;
+    private final int sampleShift;
+    private final int traceActorId;
+    private final TraceCollector traceCollector;
+    private final LatencyHistogram queueTime = new LatencyHistogram();
+    private final List<LatencyHistogram> serviceTimes = new ArrayList<>();
+    private volatile long sequenceOffset;
+    private boolean started;
 
     public Disactor(
             EventFactory<EVENT> eventFactory,
             int bufferSize,
-            ExceptionHandler<EVENT> exceptionHandler,
+            ExceptionHandler<? super EVENT> exceptionHandler,
             Executor executor,
             Actor<EVENT> actor) {
-        this(new Disruptor<EVENT>(eventFactory, bufferSize, executor), exceptionHandler, actor);
+        this(eventFactory, bufferSize, exceptionHandler, executor, actor, OverflowPolicy.BLOCK);
     }
 
-    public Disactor(Disruptor<EVENT> disruptor, ExceptionHandler<EVENT> exceptionHandler, Actor<EVENT> actor) {
-        this.disruptor = disruptor;
-        disruptor.handleExceptionsWith(exceptionHandler);
-        //noinspection unchecked
-        disruptor.handleEventsWith(createEventHandler(actor));
+    public Disactor(
+            EventFactory<EVENT> eventFactory,
+            int bufferSize,
+            ExceptionHandler<? super EVENT> exceptionHandler,
+            Executor executor,
+            Actor<EVENT> actor,
+            OverflowPolicy overflowPolicy) {
+        this(eventFactory, bufferSize, exceptionHandler, executor, actor, overflowPolicy, 0, TimeUnit.NANOSECONDS);
+    }
+
+    public Disactor(
+            EventFactory<EVENT> eventFactory,
+            int bufferSize,
+            ExceptionHandler<? super EVENT> exceptionHandler,
+            Executor executor,
+            Actor<EVENT> actor,
+            OverflowPolicy overflowPolicy,
+            long overflowTimeout,
+            TimeUnit unit) {
+        this((size, tracking) -> new Disruptor<EVENT>(
+                        eventFactory, size, (Executor) command -> executor.execute(tracking.apply(command))),
+                bufferSize, exceptionHandler, Collections.singletonList(Collections.singletonList(actor)), overflowPolicy,
+                unit.toNanos(overflowTimeout), 0, -1, null);
+    }
+
+    public Disactor(Disruptor<EVENT> disruptor, ExceptionHandler<? super EVENT> exceptionHandler, Actor<EVENT> actor) {
+        this(disruptor, exceptionHandler, actor, OverflowPolicy.BLOCK, 0, TimeUnit.NANOSECONDS);
+    }
+
+    public Disactor(
+            Disruptor<EVENT> disruptor,
+            ExceptionHandler<? super EVENT> exceptionHandler,
+            Actor<EVENT> actor,
+            OverflowPolicy overflowPolicy,
+            long overflowTimeout,
+            TimeUnit unit) {
+        this(disruptor, exceptionHandler, Collections.singletonList(Collections.singletonList(actor)), overflowPolicy, overflowTimeout, unit);
+    }
+
+    /**
+     * @param stages actors of each stage handle the same slot in parallel, stages run one after another;
+     *               a stage sees everything earlier stages wrote into the event, parallel actors of
+     *               one stage must not write the same fields
+     */
+    public Disactor(
+            Disruptor<EVENT> disruptor,
+            ExceptionHandler<? super EVENT> exceptionHandler,
+            List<? extends List<? extends Actor<EVENT>>> stages,
+            OverflowPolicy overflowPolicy,
+            long overflowTimeout,
+            TimeUnit unit) {
+        this((size, tracking) -> disruptor, 0, exceptionHandler, stages, overflowPolicy, unit.toNanos(overflowTimeout),
+                0, -1, null);
+    }
+
+    /**
+     * @param disruptorFactory creates the disruptor for a given buffer size; when {@code bufferSize} is 0 it
+     *                         returns a prebuilt disruptor and the Disactor cannot be resized or drained
+     */
+    private Disactor(
+            DisruptorFactory<EVENT> disruptorFactory,
+            int bufferSize,
+            ExceptionHandler<? super EVENT> exceptionHandler,
+            List<? extends List<? extends Actor<EVENT>>> stages,
+            OverflowPolicy overflowPolicy,
+            long overflowTimeoutNanos,
+            int latencySampling,
+            int traceActorId,
+            TraceCollector traceCollector) {
+        if (stages.isEmpty()) {
+            throw new IllegalArgumentException("At least one stage is required");
+        }
+        this.disruptorFactory = disruptorFactory;
+        this.resizable = bufferSize > 0;
+        this.exceptionHandler = exceptionHandler;
+        this.stages = stages;
+        this.overflowPolicy = overflowPolicy;
+        this.overflowTimeoutNanos = overflowTimeoutNanos;
+        this.latencySampling = latencySampling;
+        this.sampleMask = latencySampling - 1;
+        this.sampleShift = Integer.numberOfTrailingZeros(latencySampling);
+        this.traceActorId = traceActorId;
+        this.traceCollector = traceCollector;
+        this.generation = new Generation(bufferSize);
+        this.askable = generation.ringBuffer.get(0) instanceof Askable;
+    }
+
+    public static <EVENT extends Event<EVENT>> Builder<EVENT> builder() {
+        return new Builder<>();
+    }
+
+    private EventHandler<EVENT>[] createEventHandlers(
+            Generation generation, List<? extends Actor<EVENT>> actors, boolean firstStage) {
+        if (actors.isEmpty()) {
+            throw new IllegalArgumentException("A stage needs at least one actor");
+        }
+        @SuppressWarnings("unchecked")
+        EventHandler<EVENT>[] handlers = (EventHandler<EVENT>[]) new EventHandler<?>[actors.size()];
+        for (int i = 0; i < handlers.length; i++) {
+            handlers[i] = createEventHandler(actors.get(i), generation.handlerSequences);
+            if (generation.publishStamps != null) {
+                // a resized disruptor keeps recording into the histograms of the handlers it replaces
+                if (generation.timedHandlers == serviceTimes.size()) {
+                    serviceTimes.add(new LatencyHistogram());
+                }
+                handlers[i] = new TimedEventHandler(
+                        handlers[i], firstStage && i == 0, serviceTimes.get(generation.timedHandlers++), generation);
+            }
+            // outside the timing, so stamping the trace does not count as service time
+            if (traceActorId >= 0 && firstStage && i == 0) {
+                handlers[i] = new TracingEventHandler(handlers[i], generation.handlerSequences);
+            }
+        }
+        return handlers;
     }
 
-    private EventHandler<EVENT> createEventHandler(final Actor<EVENT> actor) {
-        return new EventHandler<EVENT>() {
+    private EventHandler<EVENT> createEventHandler(final Actor<EVENT> actor, List<Sequence> handlerSequences) {
+        if (actor instanceof BatchAwareActor) {
+            return new BatchAwareEventHandler((BatchAwareActor<EVENT>) actor, handlerSequences);
+        }
+        return new SequenceReportingEventHandler<EVENT>() {
+            @Override
+            public void setSequenceCallback(Sequence sequence) {
+                handlerSequences.add(sequence);
+            }
+
             @Override
             public void onEvent(EVENT event, long sequence, boolean endOfBatch) throws Exception {
                 actor.onEvent(event);
@@ -37,19 +211,929 @@ public class Disactor<EVENT extends Event<EVENT>> implements Actor<EVENT>{
         };
     }
 
-    public void start() {
-        disruptor.start();
+    public synchronized void start() {
+        generation.disruptor.start();
+        started = true;
+    }
+
+    public synchronized void stop() {
+        generation.disruptor.shutdown();
+    }
+
+    /**
+     * Rejects further events, waits until the actors have handled everything already published, then stops
+     * for good. Events rejected meanwhile are counted in {@link #getRejectedCount()}; {@link #ask} throws for them.
+     *
+     * Not available for Disactors created from a prebuilt disruptor, whose actor threads cannot be waited for.
+     *
+     * @return false if the backlog was not drained in time; the actors are halted anyway and the events they
+     * did not handle are counted as rejected
+     */
+    public synchronized boolean drainAndStop(long timeout, TimeUnit unit) {
+        if (!resizable) {
+            throw new UnsupportedOperationException("A Disactor created from a prebuilt disruptor cannot be drained");
+        }
+        Generation current = generation;
+        if (current.state == STOPPED) {
+            return true;
+        }
+        current.state = STOPPING;
+        long cursor = current.ringBuffer.getCursor();
+        boolean drained = awaitHandled(current.ringBuffer, cursor, started ? unit.toNanos(timeout) : 0);
+        long handled = current.halt();
+        SequenceBarrier barrier = current.ringBuffer.newBarrier();
+        for (long seq = handled + 1; seq <= cursor; seq++) {
+            awaitPublished(barrier, seq);
+            reject(current.ringBuffer.get(seq));
+        }
+        current.handOff(Math.max(handled, cursor), STOPPED);
+        return drained;
+    }
+
+    /**
+     * Unlike {@link Disruptor#shutdown(long, TimeUnit)} this also waits for actors whose thread has not
+     * started running yet.
+     */
+    private static boolean awaitHandled(RingBuffer<?> ringBuffer, long sequence, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (ringBuffer.getMinimumGatingSequence() < sequence) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * Waits until the producer that claimed the sequence has published it.
+     */
+    private static void awaitPublished(SequenceBarrier barrier, long sequence) {
+        try {
+            // the cursor is past the sequence, so the wait strategy returns at once
+            while (barrier.waitFor(sequence) < sequence) {
+                Thread.yield();
+            }
+        } catch (AlertException | com.lmax.disruptor.TimeoutException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Moves to a ring buffer of the given size while running. The old actors first catch up with everything
+     * published so far, producers pause after their next publish meanwhile; then the actors continue on the
+     * new ring buffer and each paused producer forwards its events the old actors did not get to, so no event
+     * is lost and the order is kept. Producers writing through {@link #getRingBuffer()} must not run during a
+     * resize. Not available for Disactors created from a prebuilt disruptor.
+     * With {@link ProducerType#SINGLE} call it from the producing thread.
+     *
+     * @return false if the old actors did not catch up in time; the Disactor then keeps its ring buffer
+     */
+    public synchronized boolean resize(int bufferSize, long timeout, TimeUnit unit) {
+        if (!resizable) {
+            throw new UnsupportedOperationException("A Disactor created from a prebuilt disruptor cannot be resized");
+        }
+        if (Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of 2: " + bufferSize);
+        }
+        Generation old = generation;
+        if (old.state != ACTIVE) {
+            throw new IllegalStateException("Disactor was stopped");
+        }
+        if (bufferSize <= old.ringBuffer.getBufferSize()) {
+            throw new IllegalArgumentException("bufferSize must be larger than " + old.ringBuffer.getBufferSize());
+        }
+        old.state = RETIRING;
+        long cursor = old.ringBuffer.getCursor();
+        if (started && !awaitHandled(old.ringBuffer, cursor, unit.toNanos(timeout))) {
+            old.state = ACTIVE;
+            return false;
+        }
+        Generation resized = new Generation(bufferSize);
+        long handled = old.halt();
+        // events published before start, ahead of anything the producers forward
+        SequenceBarrier barrier = old.ringBuffer.newBarrier();
+        for (long seq = handled + 1; seq <= cursor; seq++) {
+            awaitPublished(barrier, seq);
+            forward(resized, old.ringBuffer.get(seq));
+        }
+        if (started) {
+            resized.disruptor.start();
+        }
+        sequenceOffset += handled + 1;
+        generation = resized;
+        old.handOff(Math.max(handled, cursor), RETIRED);
+        return true;
+    }
+
+    /**
+     * Slow path of a producer that published into a generation being resized or stopped: waits for the
+     * outcome, then forwards to the current ring buffer, or rejects, those of its events the old actors did
+     * not handle, in sequence order, before its next events can follow them.
+     */
+    private void settle(Generation old, long lo, long hi) {
+        int state;
+        while ((state = old.state) == RETIRING || state == STOPPING) {
+            Thread.yield();
+        }
+        if (state == ACTIVE) {
+            // the resize was called off, the actors handle the events
+            return;
+        }
+        long from = Math.max(lo, old.handOff + 1);
+        if (from > hi) {
+            return;
+        }
+        while (old.settled != from - 1) {
+            Thread.yield();
+        }
+        for (long seq = from; seq <= hi; seq++) {
+            if (state == RETIRED) {
+                forward(generation, old.ringBuffer.get(seq));
+            } else {
+                reject(old.ringBuffer.get(seq));
+            }
+        }
+        old.settled = hi;
+        old.release(hi);
+    }
+
+    private void forward(Generation target, EVENT event) {
+        RingBuffer<EVENT> ringBuffer = target.ringBuffer;
+        long seq = ringBuffer.next();
+        EVENT nextEvent = ringBuffer.get(seq);
+        nextEvent.copyFrom(event);
+        if (askable) {
+            movePromise((Askable<?>) event, nextEvent);
+        }
+        traceEnqueue(nextEvent);
+        stampPublish(target, seq);
+        ringBuffer.publish(seq);
+        if (target.state != ACTIVE) {
+            settle(target, seq, seq);
+        }
     }
 
-    public void stop() {
-        disruptor.shutdown();
+    private void reject(EVENT event) {
+        rejected.increment();
+        if (askable) {
+            Promise<?> promise = ((Askable<?>) event).getPromise();
+            if (promise != null) {
+                ((Askable<?>) event).setPromise(null);
+                promise.fail(new RejectedExecutionException("Disactor was stopped"));
+            }
+        }
+    }
+
+    private static <R> void movePromise(Askable<R> from, Object to) {
+        @SuppressWarnings("unchecked")
+        Askable<R> target = (Askable<R>) to;
+        target.setPromise(from.getPromise());
+        from.setPromise(null);
     }
 
     @Override
     public void onEvent(EVENT event) {
-        long seq = disruptor.getRingBuffer().next();
-        EVENT nextEvent = disruptor.getRingBuffer().get(seq);
+        Generation current = generation;
+        RingBuffer<EVENT> ringBuffer = current.ringBuffer;
+        long seq = claim(current, 1);
+        if (seq < 0) {
+            rejected.increment();
+            return;
+        }
+        EVENT nextEvent = ringBuffer.get(seq);
         nextEvent.copyFrom(event);
-        disruptor.getRingBuffer().publish(seq);
+        clearPromise(nextEvent);
+        traceEnqueue(nextEvent);
+        stampPublish(current, seq);
+        ringBuffer.publish(seq);
+        if (current.state != ACTIVE) {
+            settle(current, seq, seq);
+        }
+    }
+
+    /**
+     * Publishes the event only if a slot is free right now, whatever the overflow policy.
+     *
+     * @return false if the ring buffer was full and the event was rejected
+     */
+    public boolean tryOnEvent(EVENT event) {
+        Generation current = generation;
+        RingBuffer<EVENT> ringBuffer = current.ringBuffer;
+        long seq;
+        if (current.state >= STOPPING) {
+            rejected.increment();
+            return false;
+        }
+        try {
+            seq = ringBuffer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            rejected.increment();
+            return false;
+        }
+        EVENT nextEvent = ringBuffer.get(seq);
+        nextEvent.copyFrom(event);
+        clearPromise(nextEvent);
+        traceEnqueue(nextEvent);
+        stampPublish(current, seq);
+        ringBuffer.publish(seq);
+        if (current.state != ACTIVE) {
+            settle(current, seq, seq);
+        }
+        return true;
+    }
+
+    /**
+     * Sends a request and waits for the actor to {@link Askable#reply} to it. The event type must implement
+     * {@link Askable}. The calling thread recycles one {@link Promise} per Disactor, so the round trip
+     * allocates nothing.
+     * <p>
+     * Blocks until the reply comes, however long that takes: an actor that never replies, or a Disactor
+     * stopped with the request still queued, leaves the caller waiting for good. Use the timed variant
+     * unless the actors always reply.
+     *
+     * @throws IllegalArgumentException                        if the event type does not implement {@link Askable}
+     * @throws java.util.concurrent.CompletionException         if an actor threw while handling the request
+     * @throws java.util.concurrent.RejectedExecutionException if the overflow policy rejected the request
+     */
+    public <R> R ask(EVENT request, Promise.Wait wait) {
+        return this.<R>send(request).await(wait);
+    }
+
+    /**
+     * Like {@link #ask(Event, Promise.Wait)}, giving up after the timeout.
+     *
+     * @throws TimeoutException if no reply came in time; a late reply is then discarded
+     */
+    public <R> R ask(EVENT request, Promise.Wait wait, long timeout, TimeUnit unit) throws TimeoutException {
+        Promise<R> promise = send(request);
+        try {
+            return promise.await(wait, unit.toNanos(timeout));
+        } catch (TimeoutException e) {
+            // a late reply must not complete the next request
+            promises.remove();
+            throw e;
+        }
+    }
+
+    private <R> Promise<R> send(EVENT request) {
+        if (!askable) {
+            throw new IllegalArgumentException(request.getClass().getName() + " is not Askable");
+        }
+        @SuppressWarnings("unchecked")
+        Promise<R> promise = (Promise<R>) promises.get();
+        Generation current = generation;
+        RingBuffer<EVENT> ringBuffer = current.ringBuffer;
+        long seq = claim(current, 1);
+        if (seq < 0) {
+            rejected.increment();
+            throw new RejectedExecutionException("Ring buffer is full");
+        }
+        EVENT nextEvent = ringBuffer.get(seq);
+        nextEvent.copyFrom(request);
+        @SuppressWarnings("unchecked")
+        Askable<R> slot = (Askable<R>) nextEvent;
+        slot.setPromise(promise);
+        traceEnqueue(nextEvent);
+        stampPublish(current, seq);
+        ringBuffer.publish(seq);
+        if (current.state != ACTIVE) {
+            settle(current, seq, seq);
+        }
+        return promise;
+    }
+
+    public void onEvents(EVENT[] events) {
+        onEvents(events, 0, events.length);
+    }
+
+    public void onEvents(EVENT[] events, int offset, int length) {
+        Generation current = generation;
+        RingBuffer<EVENT> ringBuffer = current.ringBuffer;
+        int maxBatch = ringBuffer.getBufferSize();
+        while (length > 0) {
+            int n = Math.min(length, maxBatch);
+            length -= n;
+            long hi = claim(current, n);
+            if (hi < 0) {
+                rejected.add(n);
+                offset += n;
+                continue;
+            }
+            long lo = hi - (n - 1);
+            for (long seq = lo; seq <= hi; seq++) {
+                EVENT nextEvent = ringBuffer.get(seq);
+                nextEvent.copyFrom(events[offset++]);
+                clearPromise(nextEvent);
+            }
+            traceEnqueue(ringBuffer, lo, hi);
+            stampPublish(current, lo, hi);
+            ringBuffer.publish(lo, hi);
+            if (current.state != ACTIVE) {
+                settle(current, lo, hi);
+            }
+        }
+    }
+
+    public void onEvents(Collection<EVENT> events) {
+        Generation current = generation;
+        RingBuffer<EVENT> ringBuffer = current.ringBuffer;
+        int maxBatch = ringBuffer.getBufferSize();
+        int length = events.size();
+        Iterator<EVENT> iterator = events.iterator();
+        while (length > 0) {
+            int n = Math.min(length, maxBatch);
+            length -= n;
+            long hi = claim(current, n);
+            if (hi < 0) {
+                rejected.add(n);
+                for (int i = 0; i < n; i++) {
+                    iterator.next();
+                }
+                continue;
+            }
+            long lo = hi - (n - 1);
+            for (long seq = lo; seq <= hi; seq++) {
+                EVENT nextEvent = ringBuffer.get(seq);
+                nextEvent.copyFrom(iterator.next());
+                clearPromise(nextEvent);
+            }
+            traceEnqueue(ringBuffer, lo, hi);
+            stampPublish(current, lo, hi);
+            ringBuffer.publish(lo, hi);
+            if (current.state != ACTIVE) {
+                settle(current, lo, hi);
+            }
+        }
+    }
+
+    /**
+     * @return number of events rejected because the ring buffer was full
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public DisactorMetrics getMetrics() {
+        RingBuffer<EVENT> ringBuffer = generation.ringBuffer;
+        long offset = sequenceOffset;
+        long handled = offset + ringBuffer.getMinimumGatingSequence() + 1;
+        long published = offset + ringBuffer.getCursor() + 1;
+        return new DisactorMetrics(
+                ringBuffer.getBufferSize(),
+                ringBuffer.remainingCapacity(),
+                published,
+                handled,
+                rejected.sum(),
+                queueTime.snapshot(),
+                LatencyHistogram.snapshot(serviceTimes));
+    }
+
+    /**
+     * For producers that write straight into the preallocated slots; they bypass the overflow policy
+     * and are not included in the queue time metrics. With tracing, a slot whose trace still ends with
+     * this Disactor's dequeue entry from the previous lap gets its trace cleared before it is stamped.
+     */
+    public RingBuffer<EVENT> getRingBuffer() {
+        return generation.ringBuffer;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * copyFrom leaves the reply slot alone, so a slot last used by an unanswered {@link #ask} would otherwise
+     * hand that request's promise to whichever actor replies to the event published into it next.
+     */
+    private void clearPromise(EVENT event) {
+        if (askable) {
+            ((Askable<?>) event).setPromise(null);
+        }
+    }
+
+    private void traceEnqueue(EVENT event) {
+        if (traceActorId >= 0) {
+            event.getTrace().add(TraceCollector.enqueueSpan(traceActorId), System.nanoTime());
+        }
+    }
+
+    private void traceEnqueue(RingBuffer<EVENT> ringBuffer, long lo, long hi) {
+        if (traceActorId >= 0) {
+            long span = TraceCollector.enqueueSpan(traceActorId);
+            long now = System.nanoTime();
+            for (long seq = lo; seq <= hi; seq++) {
+                ringBuffer.get(seq).getTrace().add(span, now);
+            }
+        }
+    }
+
+    private void stampPublish(Generation generation, long sequence) {
+        if ((sequence & sampleMask) == 0 && generation.publishStamps != null) {
+            stamp(generation, sequence, System.nanoTime());
+        }
+    }
+
+    private void stampPublish(Generation generation, long lo, long hi) {
+        if (generation.publishStamps != null) {
+            long now = System.nanoTime();
+            for (long seq = lo; seq <= hi; seq++) {
+                if ((seq & sampleMask) == 0) {
+                    stamp(generation, seq, now);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sampled sequences less than a ring buffer apart get different entries, so an entry is only
+     * overwritten after the first actor read it. Keeping the sequence lets the actor skip events that were
+     * published without a stamp, and it never writes back to the producer's cache lines.
+     */
+    private void stamp(Generation generation, long sequence, long nanos) {
+        long[] stamps = generation.publishStamps;
+        int index = (int) (sequence >>> sampleShift) & generation.stampMask;
+        stamps[2 * index] = sequence;
+        stamps[2 * index + 1] = nanos;
+    }
+
+    private long claim(Generation generation, int n) {
+        if (generation.state >= STOPPING) {
+            return -1;
+        }
+        RingBuffer<EVENT> ringBuffer = generation.ringBuffer;
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                try {
+                    return ringBuffer.tryNext(n);
+                } catch (InsufficientCapacityException e) {
+                    return -1;
+                }
+            case SPIN_THEN_PARK:
+                return claimWithinTimeout(ringBuffer, n);
+            default:
+                return ringBuffer.next(n);
+        }
+    }
+
+    private long claimWithinTimeout(RingBuffer<EVENT> ringBuffer, int n) {
+        int spins = SPIN_TRIES;
+        long deadline = 0;
+        boolean parking = false;
+        while (true) {
+            try {
+                return ringBuffer.tryNext(n);
+            } catch (InsufficientCapacityException e) {
+                if (spins > 0) {
+                    spins--;
+                    continue;
+                }
+                if (overflowTimeoutNanos > 0) {
+                    long now = System.nanoTime();
+                    if (!parking) {
+                        parking = true;
+                        deadline = now + overflowTimeoutNanos;
+                    } else if (now - deadline >= 0) {
+                        return -1;
+                    }
+                }
+                LockSupport.parkNanos(PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Fails the pending {@link #ask} when an actor throws, then lets the configured handler decide.
+     */
+    private static class AskExceptionHandler<EVENT> implements ExceptionHandler<EVENT> {
+
+        private final ExceptionHandler<? super EVENT> delegate;
+
+        AskExceptionHandler(ExceptionHandler<? super EVENT> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void handleEventException(Throwable ex, long sequence, EVENT event) {
+            if (event instanceof Askable) {
+                Promise<?> promise = ((Askable<?>) event).getPromise();
+                if (promise != null) {
+                    ((Askable<?>) event).setPromise(null);
+                    promise.fail(ex);
+                }
+            }
+            delegate.handleEventException(ex, sequence, event);
+        }
+
+        @Override
+        public void handleOnStartException(Throwable ex) {
+            delegate.handleOnStartException(ex);
+        }
+
+        @Override
+        public void handleOnShutdownException(Throwable ex) {
+            delegate.handleOnShutdownException(ex);
+        }
+    }
+
+    private class BatchAwareEventHandler implements SequenceReportingEventHandler<EVENT>, BatchStartAware {
+
+        private final BatchAwareActor<EVENT> actor;
+        private final List<Sequence> handlerSequences;
+
+        BatchAwareEventHandler(BatchAwareActor<EVENT> actor, List<Sequence> handlerSequences) {
+            this.actor = actor;
+            this.handlerSequences = handlerSequences;
+        }
+
+        @Override
+        public void setSequenceCallback(Sequence sequence) {
+            handlerSequences.add(sequence);
+        }
+
+        @Override
+        public void onBatchStart(long batchSize) {
+            actor.onBatchStart(batchSize);
+        }
+
+        @Override
+        public void onEvent(EVENT event, long sequence, boolean endOfBatch) throws Exception {
+            actor.onEvent(event, sequence, endOfBatch);
+        }
+    }
+
+    /**
+     * Times the sampled events and keeps the samples in plain arrays, they go into the shared histograms
+     * at the end of a batch or once the arrays are full, so the handler thread does no ordered store per event.
+     */
+    private class TimedEventHandler implements SequenceReportingEventHandler<EVENT>, BatchStartAware {
+
+        private final EventHandler<EVENT> delegate;
+        private final boolean recordsQueueTime;
+        private final LatencyHistogram serviceTime;
+        private final List<Sequence> handlerSequences;
+        private final long[] stamps;
+        private final int stampMask;
+        private final long[] queueSamples = new long[PENDING_SAMPLES];
+        private final long[] serviceSamples = new long[PENDING_SAMPLES];
+        private int queueCount;
+        private int serviceCount;
+
+        TimedEventHandler(
+                EventHandler<EVENT> delegate,
+                boolean recordsQueueTime,
+                LatencyHistogram serviceTime,
+                Generation generation) {
+            this.delegate = delegate;
+            this.recordsQueueTime = recordsQueueTime;
+            this.serviceTime = serviceTime;
+            this.handlerSequences = generation.handlerSequences;
+            this.stamps = generation.publishStamps;
+            this.stampMask = generation.stampMask;
+        }
+
+        @Override
+        public void setSequenceCallback(Sequence sequence) {
+            handlerSequences.add(sequence);
+        }
+
+        @Override
+        public void onBatchStart(long batchSize) {
+            if (delegate instanceof BatchStartAware) {
+                ((BatchStartAware) delegate).onBatchStart(batchSize);
+            }
+        }
+
+        @Override
+        public void onEvent(EVENT event, long sequence, boolean endOfBatch) throws Exception {
+            if ((sequence & sampleMask) != 0) {
+                delegate.onEvent(event, sequence, endOfBatch);
+                if (endOfBatch && serviceCount > 0) {
+                    flush();
+                }
+                return;
+            }
+            long start = System.nanoTime();
+            if (recordsQueueTime) {
+                int index = 2 * ((int) (sequence >>> sampleShift) & stampMask);
+                if (stamps[index] == sequence) {
+                    queueSamples[queueCount++] = start - stamps[index + 1];
+                }
+            }
+            try {
+                delegate.onEvent(event, sequence, endOfBatch);
+            } finally {
+                serviceSamples[serviceCount++] = System.nanoTime() - start;
+                if (endOfBatch || serviceCount == PENDING_SAMPLES) {
+                    flush();
+                }
+            }
+        }
+
+        private void flush() {
+            for (int i = 0; i < queueCount; i++) {
+                queueTime.record(queueSamples[i]);
+            }
+            for (int i = 0; i < serviceCount; i++) {
+                serviceTime.record(serviceSamples[i]);
+            }
+            queueCount = 0;
+            serviceCount = 0;
+        }
+    }
+
+    private class TracingEventHandler implements SequenceReportingEventHandler<EVENT>, BatchStartAware {
+
+        private final EventHandler<EVENT> delegate;
+        private final List<Sequence> handlerSequences;
+        private final long enqueueSpan = TraceCollector.enqueueSpan(traceActorId);
+        private final long dequeueSpan = TraceCollector.dequeueSpan(traceActorId);
+
+        TracingEventHandler(EventHandler<EVENT> delegate, List<Sequence> handlerSequences) {
+            this.delegate = delegate;
+            this.handlerSequences = handlerSequences;
+        }
+
+        @Override
+        public void setSequenceCallback(Sequence sequence) {
+            handlerSequences.add(sequence);
+        }
+
+        @Override
+        public void onBatchStart(long batchSize) {
+            if (delegate instanceof BatchStartAware) {
+                ((BatchStartAware) delegate).onBatchStart(batchSize);
+            }
+        }
+
+        @Override
+        public void onEvent(EVENT event, long sequence, boolean endOfBatch) throws Exception {
+            Trace trace = event.getTrace();
+            long now = System.nanoTime();
+            int size = trace.size();
+            if (size > 0 && trace.getSpanId(size - 1) == dequeueSpan) {
+                // left from the previous lap: the slot was written through getRingBuffer(), not copied into
+                trace.clear();
+                size = 0;
+            }
+            if (traceCollector != null && size > 0 && trace.getSpanId(size - 1) == enqueueSpan) {
+                traceCollector.record(traceActorId, now - trace.getTimestamp(size - 1), now - trace.getTimestamp(0));
+            }
+            trace.add(dequeueSpan, now);
+            delegate.onEvent(event, sequence, endOfBatch);
+        }
+    }
+
+    /**
+     * A ring buffer with the actors handling it, replaced as a whole by {@link #resize}. Producers read
+     * {@link #state} once per publish; it only leaves {@code ACTIVE} while the generation is being retired
+     * or stopped, which sends the producers that published meanwhile through {@link #settle}.
+     */
+    private final class Generation {
+
+        final Disruptor<EVENT> disruptor;
+        final RingBuffer<EVENT> ringBuffer;
+        // pairs of sequence and publish time of the sampled events
+        final long[] publishStamps;
+        final int stampMask;
+        final List<Sequence> handlerSequences = new ArrayList<>();
+        // one party for the resize or stop, plus one per running event processor
+        final Phaser processors = new Phaser(1);
+        int timedHandlers;
+        volatile int state = ACTIVE;
+        // the resize or stop took care of the events up to here, producers settle the later ones in order
+        long handOff;
+        volatile long settled;
+
+        Generation(int requestedSize) {
+            disruptor = disruptorFactory.create(requestedSize, this::track);
+            ringBuffer = disruptor.getRingBuffer();
+            int bufferSize = ringBuffer.getBufferSize();
+            int stamps = latencySampling > 0 ? Math.max(1, bufferSize / latencySampling) : 0;
+            publishStamps = latencySampling > 0 ? new long[2 * stamps] : null;
+            stampMask = stamps - 1;
+            disruptor.handleExceptionsWith(new AskExceptionHandler<>(exceptionHandler));
+            EventHandlerGroup<EVENT> group = null;
+            for (List<? extends Actor<EVENT>> stage : stages) {
+                EventHandler<EVENT>[] handlers = createEventHandlers(this, stage, group == null);
+                group = group == null ? disruptor.handleEventsWith(handlers) : group.then(handlers);
+            }
+        }
+
+        private Runnable track(Runnable processor) {
+            processors.register();
+            return () -> {
+                try {
+                    processor.run();
+                } finally {
+                    processors.arriveAndDeregister();
+                }
+            };
+        }
+
+        /**
+         * Halts the actors and waits for their processors to return. Only called for disruptors this Disactor
+         * created, a prebuilt one's processors are not tracked.
+         *
+         * @return the last sequence all actors handled
+         */
+        long halt() {
+            disruptor.halt();
+            processors.arriveAndAwaitAdvance();
+            return ringBuffer.getMinimumGatingSequence();
+        }
+
+        void handOff(long sequence, int state) {
+            handOff = sequence;
+            settled = sequence;
+            release(sequence);
+            this.state = state;
+        }
+
+        /**
+         * Frees the slots up to the sequence for producers still blocked on the halted actors.
+         */
+        void release(long sequence) {
+            for (Sequence handlerSequence : handlerSequences) {
+                handlerSequence.set(sequence);
+            }
+        }
+    }
+
+    private interface DisruptorFactory<EVENT> {
+
+        /**
+         * @param tracking wraps every runnable the disruptor starts, so a resize can wait for them to end
+         */
+        Disruptor<EVENT> create(int bufferSize, UnaryOperator<Runnable> tracking);
+    }
+
+    public static class Builder<EVENT extends Event<EVENT>> {
+
+        private EventFactory<EVENT> eventFactory;
+        private int bufferSize = 1024;
+        private ExceptionHandler<? super EVENT> exceptionHandler = new FatalExceptionHandler();
+        private ThreadFactory threadFactory = DaemonThreadFactory.INSTANCE;
+        private ProducerType producerType = ProducerType.MULTI;
+        private WaitStrategy waitStrategy = new BlockingWaitStrategy();
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+        private long overflowTimeoutNanos;
+        private final List<List<Actor<EVENT>>> stages = new ArrayList<>();
+        private int latencySampling;
+        private int traceActorId = -1;
+        private TraceCollector traceCollector;
+
+        private Builder() {
+        }
+
+        public Builder<EVENT> eventFactory(EventFactory<EVENT> eventFactory) {
+            this.eventFactory = eventFactory;
+            return this;
+        }
+
+        /**
+         * @param bufferSize number of preallocated event slots, must be a power of 2
+         */
+        public Builder<EVENT> bufferSize(int bufferSize) {
+            if (Integer.bitCount(bufferSize) != 1) {
+                throw new IllegalArgumentException("bufferSize must be a power of 2: " + bufferSize);
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        public Builder<EVENT> exceptionHandler(ExceptionHandler<? super EVENT> exceptionHandler) {
+            this.exceptionHandler = exceptionHandler;
+            return this;
+        }
+
+        public Builder<EVENT> threadFactory(ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        /**
+         * Use {@link ProducerType#SINGLE} only when every onEvent call comes from the same thread.
+         */
+        public Builder<EVENT> producerType(ProducerType producerType) {
+            this.producerType = producerType;
+            return this;
+        }
+
+        public Builder<EVENT> waitStrategy(WaitStrategy waitStrategy) {
+            this.waitStrategy = waitStrategy;
+            return this;
+        }
+
+        public Builder<EVENT> overflowPolicy(OverflowPolicy overflowPolicy) {
+            return overflowPolicy(overflowPolicy, 0, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * @param overflowTimeout how long {@link OverflowPolicy#SPIN_THEN_PARK} parks before rejecting,
+         *                        0 parks until a slot frees up
+         */
+        public Builder<EVENT> overflowPolicy(OverflowPolicy overflowPolicy, long overflowTimeout, TimeUnit unit) {
+            if (overflowTimeout < 0) {
+                throw new IllegalArgumentException("overflowTimeout must not be negative: " + overflowTimeout);
+            }
+            this.overflowPolicy = overflowPolicy;
+            this.overflowTimeoutNanos = unit.toNanos(overflowTimeout);
+            return this;
+        }
+
+        /**
+         * Records publish-to-handle and service time histograms for every event, at the cost of
+         * three System.nanoTime() calls per event. Counters and backlog are always available.
+         */
+        public Builder<EVENT> latencyMetrics(boolean latencyMetrics) {
+            return latencyMetrics(latencyMetrics ? 1 : 0);
+        }
+
+        /**
+         * @param sampleEvery records latencies of one event in this many (a power of 2), 0 turns them off
+         */
+        public Builder<EVENT> latencyMetrics(int sampleEvery) {
+            if (sampleEvery != 0 && Integer.bitCount(sampleEvery) != 1) {
+                throw new IllegalArgumentException("sampleEvery must be 0 or a power of 2: " + sampleEvery);
+            }
+            this.latencySampling = sampleEvery;
+            return this;
+        }
+
+        /**
+         * Stamps an enqueue and a dequeue entry for this actor into every event's {@link Trace}, so the trace
+         * carries the hops an event went through, and records per-hop latency into the collector.
+         * Parallel actors of the first stage must not read the trace, the first of them writes to it.
+         *
+         * @param actorId   id of this Disactor in the traces, below {@link TraceCollector#getMaxActors()}
+         * @param collector may be null to only stamp the traces
+         */
+        public Builder<EVENT> tracing(int actorId, TraceCollector collector) {
+            if (actorId < 0 || (collector != null && actorId >= collector.getMaxActors())) {
+                throw new IllegalArgumentException("actorId out of range: " + actorId);
+            }
+            this.traceActorId = actorId;
+            this.traceCollector = collector;
+            return this;
+        }
+
+        /**
+         * Adds a stage with a single actor, same as {@code stage(actor)}.
+         */
+        public Builder<EVENT> actor(Actor<EVENT> actor) {
+            return stage(actor);
+        }
+
+        /**
+         * Adds a stage that runs after all previously added ones. The actors of one stage handle
+         * the same slot in parallel, each on its own thread, with no copy between stages.
+         */
+        @SafeVarargs
+        public final Builder<EVENT> stage(Actor<EVENT>... actors) {
+            List<Actor<EVENT>> stage = new ArrayList<>(actors.length);
+            for (Actor<EVENT> actor : actors) {
+                stage.add(Objects.requireNonNull(actor, "actor"));
+            }
+            stages.add(stage);
+            return this;
+        }
+
+        /**
+         * @return a builder with the same settings and stages that can be changed without affecting this one
+         */
+        public Builder<EVENT> copy() {
+            Builder<EVENT> copy = new Builder<>();
+            copy.eventFactory = eventFactory;
+            copy.bufferSize = bufferSize;
+            copy.exceptionHandler = exceptionHandler;
+            copy.threadFactory = threadFactory;
+            copy.producerType = producerType;
+            copy.waitStrategy = waitStrategy;
+            copy.overflowPolicy = overflowPolicy;
+            copy.overflowTimeoutNanos = overflowTimeoutNanos;
+            copy.stages.addAll(stages);
+            copy.latencySampling = latencySampling;
+            copy.traceActorId = traceActorId;
+            copy.traceCollector = traceCollector;
+            return copy;
+        }
+
+        public Disactor<EVENT> build() {
+            Objects.requireNonNull(eventFactory, "eventFactory");
+            EventFactory<EVENT> eventFactory = this.eventFactory;
+            ThreadFactory threadFactory = this.threadFactory;
+            ProducerType producerType = this.producerType;
+            WaitStrategy waitStrategy = this.waitStrategy;
+            return new Disactor<>(
+                    (size, tracking) -> new Disruptor<>(eventFactory, size,
+                            (ThreadFactory) runnable -> threadFactory.newThread(tracking.apply(runnable)),
+                            producerType, waitStrategy),
+                    bufferSize, exceptionHandler, new ArrayList<>(stages), overflowPolicy, overflowTimeoutNanos,
+                    latencySampling, traceActorId, traceCollector);
+        }
     }
 }
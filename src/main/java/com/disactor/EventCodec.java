@@ -0,0 +1,21 @@
+package com.disactor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Serialized form of an event, for actors that hand events over through memory outside the JVM heap.
+ */
+public interface EventCodec<EVENT> {
+
+    /**
+     * Writes the event at the buffer position and advances it. A {@link java.nio.BufferOverflowException}
+     * means the event does not fit, the caller retries with more room.
+     */
+    void encode(EVENT event, ByteBuffer to);
+
+    /**
+     * Reads an event written by {@link #encode} from the buffer position into the given, reused instance.
+     */
+    void decode(ByteBuffer from, EVENT to);
+
+}
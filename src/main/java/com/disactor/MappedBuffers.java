@@ -0,0 +1,51 @@
+package com.disactor;
+
+import com.lmax.disruptor.util.Util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Releases memory-mapped files without waiting for the garbage collector, so a rolled journal segment or a closed
+ * ring does not stay mapped. Uses {@code Unsafe.invokeCleaner} on Java 9+ and the buffer's cleaner on Java 8.
+ * The buffer must not be touched afterwards: an access to unmapped memory crashes the JVM.
+ */
+public final class MappedBuffers {
+
+    private static final MethodHandle UNMAP = unmapper();
+
+    private MappedBuffers() {
+    }
+
+    public static void unmap(MappedByteBuffer buffer) {
+        if (UNMAP == null) {
+            return; // left to the garbage collector
+        }
+        try {
+            UNMAP.invokeExact((ByteBuffer) buffer);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot unmap " + buffer, e);
+        }
+    }
+
+    private static MethodHandle unmapper() {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            return lookup.findVirtual(Util.getUnsafe().getClass(), "invokeCleaner",
+                    MethodType.methodType(void.class, ByteBuffer.class)).bindTo(Util.getUnsafe());
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            try {
+                MethodHandle cleaner = lookup.unreflect(Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner"));
+                MethodHandle clean = lookup.unreflect(cleaner.type().returnType().getMethod("clean"));
+                return MethodHandles.filterReturnValue(cleaner, clean)
+                        .asType(MethodType.methodType(void.class, ByteBuffer.class));
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                return null;
+            }
+        }
+    }
+
+}
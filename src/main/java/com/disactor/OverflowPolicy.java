@@ -0,0 +1,24 @@
+package com.disactor;
+
+/**
+ * What {@link Disactor#onEvent} does when the ring buffer has no free slot.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Wait inside {@code RingBuffer.next()} until the actor frees a slot.
+     */
+    BLOCK,
+
+    /**
+     * Reject the incoming event straight away.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Busy-spin for a short while, then park until a slot frees up or the overflow timeout passes,
+     * after which the incoming event is rejected. With a timeout of 0 it parks until a slot frees up.
+     */
+    SPIN_THEN_PARK
+
+}
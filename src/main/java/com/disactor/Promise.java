@@ -0,0 +1,120 @@
+package com.disactor;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reusable reply slot for {@link Disactor#ask}: the actor completes it once, the asking thread waits for it,
+ * takes the result and resets it for its next request. Each asking thread recycles one promise per Disactor,
+ * so a round trip allocates nothing.
+ */
+public final class Promise<R> {
+
+    /**
+     * How the asking thread waits for the reply.
+     */
+    public enum Wait {
+
+        /**
+         * Busy-spin, yielding after a while; lowest latency, burns the caller's core.
+         */
+        SPIN,
+
+        /**
+         * Spin briefly, then park until the actor unparks the caller.
+         */
+        PARK
+    }
+
+    private static final int PENDING = 0;
+    private static final int DONE = 1;
+    private static final int FAILED = 2;
+    private static final int SPIN_TRIES = 100;
+
+    private volatile int state;
+    private volatile Thread waiter;
+    private R value;
+    private Throwable error;
+
+    public void complete(R value) {
+        this.value = value;
+        finish(DONE);
+    }
+
+    public void fail(Throwable error) {
+        this.error = error;
+        finish(FAILED);
+    }
+
+    private void finish(int state) {
+        this.state = state;
+        Thread waiter = this.waiter;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    public boolean isDone() {
+        return state != PENDING;
+    }
+
+    /**
+     * Waits for the reply as long as it takes, then resets the promise.
+     *
+     * @throws CompletionException if the actor failed
+     */
+    R await(Wait wait) {
+        waitFor(wait, false, 0);
+        return take();
+    }
+
+    /**
+     * Waits for the reply, then resets the promise.
+     *
+     * @throws CompletionException if the actor failed
+     * @throws TimeoutException    if no reply came in time; the promise must not be reused then
+     */
+    R await(Wait wait, long timeoutNanos) throws TimeoutException {
+        if (!waitFor(wait, true, System.nanoTime() + timeoutNanos)) {
+            throw new TimeoutException();
+        }
+        return take();
+    }
+
+    private boolean waitFor(Wait wait, boolean timed, long deadline) {
+        int tries = 0;
+        while (state == PENDING) {
+            if (++tries > SPIN_TRIES) {
+                long remaining = timed ? deadline - System.nanoTime() : Long.MAX_VALUE;
+                if (remaining <= 0) {
+                    return false;
+                }
+                if (wait == Wait.SPIN) {
+                    Thread.yield();
+                } else {
+                    waiter = Thread.currentThread();
+                    if (state == PENDING) {
+                        LockSupport.parkNanos(this, remaining);
+                    }
+                }
+            }
+        }
+        waiter = null;
+        return true;
+    }
+
+    private R take() {
+        R result = value;
+        Throwable failure = error;
+        boolean failed = state == FAILED;
+        value = null;
+        error = null;
+        state = PENDING;
+        if (failed) {
+            throw new CompletionException(failure);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.disactor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Spreads events over several {@link Disactor}s by key. Events with equal keys always go to the same shard,
+ * so they are handled in publish order; different keys are handled in parallel, one thread per shard.
+ */
+public class ShardedDisactor<EVENT extends Event<EVENT>> implements Actor<EVENT> {
+
+    private final Disactor<EVENT>[] shards;
+    private final ToIntFunction<EVENT> keyFunction;
+    private final int mask;
+
+    /**
+     * @param shardFactory creates the Disactor of the given shard index; every shard should get
+     *                     its own actor instance unless the actor is thread safe
+     * @param keyFunction  hash of the routing key, e.g. {@code event -> Long.hashCode(event.getAccountId())}
+     */
+    public ShardedDisactor(int shardCount, IntFunction<Disactor<EVENT>> shardFactory, ToIntFunction<EVENT> keyFunction) {
+        this(createShards(shardCount, shardFactory), keyFunction);
+    }
+
+    public ShardedDisactor(List<Disactor<EVENT>> shards, ToIntFunction<EVENT> keyFunction) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Disactor<EVENT>[] array = shards.toArray(new Disactor[0]);
+        this.shards = array;
+        this.keyFunction = keyFunction;
+        this.mask = Integer.bitCount(this.shards.length) == 1 ? this.shards.length - 1 : -1;
+    }
+
+    private static <EVENT extends Event<EVENT>> List<Disactor<EVENT>> createShards(int shardCount, IntFunction<Disactor<EVENT>> shardFactory) {
+        List<Disactor<EVENT>> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(shardFactory.apply(i));
+        }
+        return shards;
+    }
+
+    public void start() {
+        for (Disactor<EVENT> shard : shards) {
+            shard.start();
+        }
+    }
+
+    public void stop() {
+        for (Disactor<EVENT> shard : shards) {
+            shard.stop();
+        }
+    }
+
+    @Override
+    public void onEvent(EVENT event) {
+        shardFor(event).onEvent(event);
+    }
+
+    public boolean tryOnEvent(EVENT event) {
+        return shardFor(event).tryOnEvent(event);
+    }
+
+    public Disactor<EVENT> shardFor(EVENT event) {
+        return shards[shardIndex(keyFunction.applyAsInt(event))];
+    }
+
+    public Disactor<EVENT> getShard(int index) {
+        return shards[index];
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public List<Disactor<EVENT>> getShards() {
+        return Collections.unmodifiableList(Arrays.asList(shards));
+    }
+
+    public long getRejectedCount() {
+        long rejected = 0;
+        for (Disactor<EVENT> shard : shards) {
+            rejected += shard.getRejectedCount();
+        }
+        return rejected;
+    }
+
+    int shardIndex(int hash) {
+        int spread = hash ^ (hash >>> 16);
+        spread *= 0x9E3779B9;
+        spread ^= spread >>> 16;
+        return mask >= 0 ? spread & mask : Math.floorMod(spread, shards.length);
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.disactor;
+
+/**
+ * Lets the actor behind a {@link Disactor} stage be replaced while events keep flowing, e.g. for a rolling
+ * deploy of new logic. Every event is handled by exactly one of the two actors: those before the swap by the
+ * old one, the rest by the new one. Batch boundaries are passed on when the current actor is a
+ * {@link BatchAwareActor}.
+ * <pre>
+ * SwappableActor&lt;OrderEvent&gt; orders = new SwappableActor&lt;&gt;(new OrderActor());
+ * Disactor.&lt;OrderEvent&gt;builder().eventFactory(OrderEvent::new).actor(orders).build();
+ * ...
+ * orders.swap(new OrderActorV2());
+ * </pre>
+ */
+public class SwappableActor<EVENT extends Event<EVENT>> implements BatchAwareActor<EVENT> {
+
+    private volatile Actor<EVENT> actor;
+
+    public SwappableActor(Actor<EVENT> actor) {
+        this.actor = actor;
+    }
+
+    /**
+     * @return the replaced actor; it may still be finishing the event it was handling when this returns
+     */
+    public Actor<EVENT> swap(Actor<EVENT> actor) {
+        Actor<EVENT> old = this.actor;
+        this.actor = actor;
+        return old;
+    }
+
+    public Actor<EVENT> getActor() {
+        return actor;
+    }
+
+    @Override
+    public void onBatchStart(long batchSize) {
+        Actor<EVENT> current = actor;
+        if (current instanceof BatchAwareActor) {
+            ((BatchAwareActor<EVENT>) current).onBatchStart(batchSize);
+        }
+    }
+
+    @Override
+    public void onEvent(EVENT event, long sequence, boolean endOfBatch) {
+        Actor<EVENT> current = actor;
+        if (current instanceof BatchAwareActor) {
+            ((BatchAwareActor<EVENT>) current).onEvent(event, sequence, endOfBatch);
+        } else {
+            current.onEvent(event);
+        }
+    }
+
+}
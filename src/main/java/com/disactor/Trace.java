@@ -1,49 +1,113 @@
 package com.disactor;
 
+import java.util.Arrays;
+
+/**
+ * Flat trace: parallel arrays of span ids and timestamps plus a fill count.
+ * In {@link Mode#FIXED} mode the arrays are preallocated to the maximum depth, in {@link Mode#LAZY} mode
+ * they start empty and grow on demand, so an untraced event carries no payload. Copying only touches
+ * the entries that were actually written.
+ */
 public class Trace implements Copyable<Trace> {
 
-    private final Trace[] nested;
-    private int lastN = 0;
+    public enum Mode {
+        FIXED,
+        LAZY
+    }
+
+    private static final long[] EMPTY = new long[0];
+    private static final int MIN_LAZY_CAPACITY = 4;
 
-    private final Trace parent;
+    private final int maxDepth;
+    private long[] spanIds;
+    private long[] timestamps;
+    private int size = 0;
 
     public Trace() {
-        this(Integer.valueOf(System.getProperty("com.disactor.trace.depth", "1024")));
+        this(Integer.valueOf(System.getProperty("com.disactor.trace.depth", "1024")),
+                Mode.valueOf(System.getProperty("com.disactor.trace.mode", "FIXED").toUpperCase()));
     }
 
     public Trace(int depth) {
-        this.parent = null;
-        this.nested = new Trace[depth];
-        for (int i = 0; i < nested.length; i++) {
-            nested[i] = new Trace(this);
-        }
+        this(depth, Mode.FIXED);
     }
 
-    public Trace(Trace parent) {
-        this.nested = null;
-        this.parent = parent;
-        parent.nest(this);
+    public Trace(int maxDepth, Mode mode) {
+        this.maxDepth = maxDepth;
+        if (mode == Mode.FIXED) {
+            this.spanIds = new long[maxDepth];
+            this.timestamps = new long[maxDepth];
+        } else {
+            this.spanIds = EMPTY;
+            this.timestamps = EMPTY;
+        }
     }
 
-    public void nest(Trace child) {
-        if (isParent()) {
-            this.nested[lastN++] = child;
-        } else {
-            parent.nest(child);
+    /**
+     * @return false if the trace is already at its maximum depth and the entry was dropped
+     */
+    public boolean add(long spanId, long timestamp) {
+        if (size == spanIds.length && !grow(size + 1)) {
+            return false;
         }
+        spanIds[size] = spanId;
+        timestamps[size] = timestamp;
+        size++;
+        return true;
+    }
+
+    public long getSpanId(int index) {
+        checkIndex(index);
+        return spanIds[index];
+    }
+
+    public long getTimestamp(int index) {
+        checkIndex(index);
+        return timestamps[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getDepth() {
+        return maxDepth;
     }
 
-    public boolean isParent() {
-        return this.nested != null;
+    /**
+     * @return number of entries currently allocated, at most {@link #getDepth()}
+     */
+    public int getCapacity() {
+        return spanIds.length;
+    }
+
+    public void clear() {
+        size = 0;
     }
 
     public void copyFrom(Trace from) {
-        if (from.parent != null) {
-            this.parent.copyFrom(from.parent);
-        } else {
-            for (int i = 0; i < nested.length; i++) {
-                nested[i].copyFrom(from.nested[i]);
-            }
+        int n = Math.min(from.size, maxDepth);
+        if (n > spanIds.length) {
+            grow(n);
+        }
+        System.arraycopy(from.spanIds, 0, spanIds, 0, n);
+        System.arraycopy(from.timestamps, 0, timestamps, 0, n);
+        size = n;
+    }
+
+    private boolean grow(int minCapacity) {
+        if (minCapacity > maxDepth) {
+            return false;
+        }
+        int capacity = Math.min(maxDepth, Math.max(MIN_LAZY_CAPACITY, Math.max(minCapacity, spanIds.length * 2)));
+        spanIds = Arrays.copyOf(spanIds, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        return true;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
         }
     }
 
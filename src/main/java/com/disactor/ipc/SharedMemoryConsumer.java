@@ -0,0 +1,155 @@
+package com.disactor.ipc;
+
+import com.disactor.Actor;
+import com.disactor.BatchAwareActor;
+import com.disactor.Event;
+import com.disactor.EventCodec;
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.FatalExceptionHandler;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Consumer end of a {@link SharedMemoryRing}: decodes each slot published by the {@link SharedMemoryProducer} in
+ * the other process into one reused event and hands it to the actor, either from its own thread after
+ * {@link #start()} or from the caller of {@link #poll()}. A {@link BatchAwareActor} sees the batches as published.
+ */
+public class SharedMemoryConsumer<EVENT extends Event<EVENT>> implements Closeable {
+
+    private static final int SPIN_TRIES = 100;
+
+    private final SharedMemoryRing ring;
+    private final EventCodec<EVENT> codec;
+    private final EVENT event;
+    private final Actor<EVENT> actor;
+    private final ExceptionHandler<? super EVENT> exceptionHandler;
+    private final ThreadFactory threadFactory;
+    private final ByteBuffer slot;
+    private long next;
+    private volatile boolean running;
+    private Thread thread;
+
+    public SharedMemoryConsumer(
+            Path path,
+            int slotSize,
+            int slots,
+            EventCodec<EVENT> codec,
+            EventFactory<EVENT> eventFactory,
+            Actor<EVENT> actor) throws IOException {
+        this(path, slotSize, slots, codec, eventFactory, actor, new FatalExceptionHandler(), DaemonThreadFactory.INSTANCE);
+    }
+
+    public SharedMemoryConsumer(
+            Path path,
+            int slotSize,
+            int slots,
+            EventCodec<EVENT> codec,
+            EventFactory<EVENT> eventFactory,
+            Actor<EVENT> actor,
+            ExceptionHandler<? super EVENT> exceptionHandler,
+            ThreadFactory threadFactory) throws IOException {
+        this.ring = new SharedMemoryRing(path, slotSize, slots);
+        this.codec = codec;
+        this.event = eventFactory.newInstance();
+        this.actor = actor;
+        this.exceptionHandler = exceptionHandler;
+        this.threadFactory = threadFactory;
+        this.slot = ring.buffer.duplicate().order(ring.buffer.order());
+        this.next = ring.consumed();
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Already started");
+        }
+        running = true;
+        thread = threadFactory.newThread(this::run);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+
+    private void run() {
+        int idle = 0;
+        while (running) {
+            if (poll() > 0) {
+                idle = 0;
+            } else if (++idle > SPIN_TRIES) {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Handles every event published so far. Not to be mixed with {@link #start()}.
+     *
+     * @return number of events handled
+     */
+    public int poll() {
+        ring.checkOpen();
+        long published = ring.published();
+        if (published == next) {
+            return 0;
+        }
+        int count = (int) (published - next);
+        if (actor instanceof BatchAwareActor) {
+            try {
+                ((BatchAwareActor<EVENT>) actor).onBatchStart(count);
+            } catch (Throwable e) {
+                exceptionHandler.handleEventException(e, next, event);
+            }
+        }
+        for (long sequence = next; sequence < published; sequence++) {
+            int offset = ring.slotOffset(sequence);
+            int length = ring.buffer.getInt(offset);
+            slot.limit(offset + Integer.BYTES + length).position(offset + Integer.BYTES);
+            codec.decode(slot, event);
+            try {
+                if (actor instanceof BatchAwareActor) {
+                    ((BatchAwareActor<EVENT>) actor).onEvent(event, sequence, sequence == published - 1);
+                } else {
+                    actor.onEvent(event);
+                }
+            } catch (Throwable e) {
+                exceptionHandler.handleEventException(e, sequence, event);
+            }
+        }
+        next = published;
+        ring.consume(published);
+        return count;
+    }
+
+    /**
+     * @return number of events handled so far, across restarts of either process
+     */
+    public long getSequence() {
+        ring.checkOpen();
+        return ring.consumed();
+    }
+
+    /**
+     * Stops the consumer thread, if started, and unmaps the ring.
+     */
+    @Override
+    public synchronized void close() {
+        stop();
+        ring.close();
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.disactor.ipc;
+
+import com.disactor.Actor;
+import com.disactor.Event;
+import com.disactor.EventCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Producer end of a {@link SharedMemoryRing}: encodes each event straight into the mapped slot and publishes it
+ * to the {@link SharedMemoryConsumer} in the other process. Being an {@link Actor} it can be the last stage of a
+ * local {@link com.disactor.Disactor}, bridging it to the other JVM. Only one thread may publish, and it closes the
+ * producer once it is done.
+ */
+public class SharedMemoryProducer<EVENT extends Event<EVENT>> implements Actor<EVENT>, Closeable {
+
+    private static final int SPIN_TRIES = 100;
+
+    private final SharedMemoryRing ring;
+    private final EventCodec<EVENT> codec;
+    private final ByteBuffer slot;
+    private long next;
+    private long consumedCache;
+
+    public SharedMemoryProducer(Path path, int slotSize, int slots, EventCodec<EVENT> codec) throws IOException {
+        this.ring = new SharedMemoryRing(path, slotSize, slots);
+        this.codec = codec;
+        this.slot = ring.buffer.duplicate().order(ring.buffer.order());
+        this.next = ring.published();
+        this.consumedCache = ring.consumed();
+    }
+
+    /**
+     * Publishes the event, spinning then yielding while the consumer is a whole ring behind.
+     */
+    @Override
+    public void onEvent(EVENT event) {
+        ring.checkOpen();
+        int tries = 0;
+        while (!hasCapacity()) {
+            if (++tries > SPIN_TRIES) {
+                Thread.yield();
+            }
+        }
+        write(event);
+    }
+
+    /**
+     * @return false when the ring is full, the event is then not published
+     */
+    public boolean tryOnEvent(EVENT event) {
+        ring.checkOpen();
+        if (!hasCapacity()) {
+            return false;
+        }
+        write(event);
+        return true;
+    }
+
+    private boolean hasCapacity() {
+        long wrapPoint = next - ring.capacity();
+        if (consumedCache > wrapPoint) {
+            return true;
+        }
+        consumedCache = ring.consumed();
+        return consumedCache > wrapPoint;
+    }
+
+    private void write(EVENT event) {
+        int offset = ring.slotOffset(next);
+        slot.limit(offset + ring.slotSize).position(offset + Integer.BYTES);
+        try {
+            codec.encode(event, slot);
+        } catch (BufferOverflowException e) {
+            throw new IllegalStateException("Event does not fit into a slot of " + ring.slotSize + " bytes", e);
+        }
+        ring.buffer.putInt(offset, slot.position() - offset - Integer.BYTES);
+        ring.publish(++next);
+    }
+
+    @Override
+    public void close() {
+        ring.close();
+    }
+
+}
@@ -0,0 +1,139 @@
+package com.disactor.ipc;
+
+import com.disactor.MappedBuffers;
+import com.lmax.disruptor.util.Util;
+import sun.misc.Unsafe;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Single producer, single consumer ring buffer in a memory-mapped file, shared by two processes.
+ * <pre>
+ * [int magic][int slotSize][int slots] ... [long published @64] ... [long consumed @192] ... [slots @256]
+ * </pre>
+ * Each slot is {@code [int length][payload]}. The sequences sit on their own cache lines and are written with
+ * store/load fences around them, the way the Disruptor orders its sequences within one JVM. The header is written
+ * or checked under a file lock, so two processes creating the ring at the same time agree on its layout.
+ */
+public final class SharedMemoryRing implements Closeable {
+
+    static final Unsafe UNSAFE = Util.getUnsafe();
+
+    private static final int MAGIC = 0x44495341;
+    private static final int PUBLISHED = 64;
+    private static final int CONSUMED = 192;
+    private static final int HEADER = 256;
+
+    final MappedByteBuffer buffer;
+    final int slotSize;
+    final int mask;
+    private boolean closed;
+
+    SharedMemoryRing(Path path, int slotSize, int slots) throws IOException {
+        if (Integer.bitCount(slots) != 1) {
+            throw new IllegalArgumentException("slots must be a power of 2: " + slots);
+        }
+        if (slotSize <= Integer.BYTES || (slotSize & 7) != 0) {
+            throw new IllegalArgumentException("slotSize must be a multiple of 8 above 8: " + slotSize);
+        }
+        this.slotSize = slotSize;
+        this.mask = slots - 1;
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + (long) slotSize * slots);
+            buffer.order(ByteOrder.nativeOrder());
+            // file locks are held per process, the monitor keeps two rings of this JVM from overlapping them
+            synchronized (SharedMemoryRing.class) {
+                try {
+                    FileLock lock = channel.lock(0, HEADER, false);
+                    try {
+                        initialize(buffer, path, slotSize, slots);
+                    } finally {
+                        lock.release();
+                    }
+                } catch (RuntimeException | IOException e) {
+                    MappedBuffers.unmap(buffer);
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static void initialize(MappedByteBuffer buffer, Path path, int slotSize, int slots) {
+        if (buffer.getInt(0) != MAGIC) {
+            buffer.putInt(4, slotSize);
+            buffer.putInt(8, slots);
+            UNSAFE.storeFence();
+            buffer.putInt(0, MAGIC);
+        } else if (buffer.getInt(4) != slotSize || buffer.getInt(8) != slots) {
+            throw new IllegalArgumentException("Ring " + path + " was created with slotSize " + buffer.getInt(4)
+                    + " and " + buffer.getInt(8) + " slots");
+        }
+    }
+
+    /**
+     * @return a file under /dev/shm, which is memory-backed on Linux, or the temp directory elsewhere
+     */
+    public static Path defaultPath(String name) {
+        Path shm = Paths.get("/dev/shm");
+        return (Files.isDirectory(shm) ? shm : Paths.get(System.getProperty("java.io.tmpdir"))).resolve(name);
+    }
+
+    int slotOffset(long sequence) {
+        return HEADER + (int) (sequence & mask) * slotSize;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    long published() {
+        long published = buffer.getLong(PUBLISHED);
+        UNSAFE.loadFence();
+        return published;
+    }
+
+    void publish(long published) {
+        UNSAFE.storeFence();
+        buffer.putLong(PUBLISHED, published);
+    }
+
+    long consumed() {
+        long consumed = buffer.getLong(CONSUMED);
+        UNSAFE.loadFence();
+        return consumed;
+    }
+
+    void consume(long consumed) {
+        UNSAFE.fullFence();
+        buffer.putLong(CONSUMED, consumed);
+    }
+
+    void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Ring is closed");
+        }
+    }
+
+    /**
+     * Unmaps the ring; the other process keeps its own mapping. Must not race with a publish or poll of this
+     * process's end, which fail with {@link IllegalStateException} afterwards.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            MappedBuffers.unmap(buffer);
+        }
+    }
+
+}
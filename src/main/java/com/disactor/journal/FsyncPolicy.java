@@ -0,0 +1,23 @@
+package com.disactor.journal;
+
+/**
+ * When {@link Journal} forces its mapped segment to disk.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Never, the OS writes dirty pages back on its own; survives a process crash, not a power loss.
+     */
+    NONE,
+
+    /**
+     * At the end of every ring buffer batch.
+     */
+    PER_BATCH,
+
+    /**
+     * At the end of a batch once the fsync interval has passed since the previous force.
+     */
+    PERIODIC
+
+}
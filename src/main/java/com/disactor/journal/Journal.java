@@ -0,0 +1,352 @@
+package com.disactor.journal;
+
+import com.disactor.Actor;
+import com.disactor.BatchAwareActor;
+import com.disactor.Event;
+import com.disactor.EventCodec;
+import com.disactor.MappedBuffers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Durable, replayable log of the events going through a {@link com.disactor.Disactor}, added as a stage in front
+ * of (or next to) the business actors:
+ * <pre>
+ * Disactor.builder().eventFactory(...).actor(journal).actor(businessActor).build();
+ * </pre>
+ * Events are encoded straight into memory-mapped segment files of a fixed size, named after the journal sequence
+ * of their first record. Each record is {@code [int recordLength][int crc32][long journalSequence][payload]}, the
+ * checksum covering sequence and payload. A record whose length, checksum or sequence does not check out ends the
+ * journal: reopening zeroes everything from there to the end of the segment, so torn bytes of a crashed journal
+ * are never read as a record. Journal sequences continue across restarts, independently of the ring buffer
+ * sequences. Only the actor thread may append. A rolled segment is unmapped as soon as it is forced, the last one
+ * on {@link #close()}.
+ */
+public class Journal<EVENT extends Event<EVENT>> implements BatchAwareActor<EVENT>, Closeable {
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".dat";
+    private static final int CHECKSUM = Integer.BYTES;
+    private static final int SEQUENCE = CHECKSUM + Integer.BYTES;
+    private static final int HEADER = SEQUENCE + Long.BYTES;
+    private static final int ROLLED = -1;
+    private static final int INVALID = -2;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final EventCodec<EVENT> codec;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private MappedByteBuffer segment;
+    private long nextSequence;
+    private long lastForceNanos = System.nanoTime();
+    private boolean dirty;
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Opens a journal that forces {@link FsyncPolicy#NONE never} or {@link FsyncPolicy#PER_BATCH per batch};
+     * {@link FsyncPolicy#PERIODIC} needs an interval.
+     */
+    public Journal(Path directory, int segmentSize, EventCodec<EVENT> codec, FsyncPolicy fsyncPolicy) throws IOException {
+        this(directory, segmentSize, codec, fsyncPolicy, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Opens the journal in the directory and positions it after the last complete record.
+     *
+     * @param segmentSize   bytes per segment file, a record must fit into one segment; an existing journal must
+     *                      be reopened with the size it was created with
+     * @param fsyncInterval only used by {@link FsyncPolicy#PERIODIC}, must be positive for it
+     */
+    public Journal(
+            Path directory,
+            int segmentSize,
+            EventCodec<EVENT> codec,
+            FsyncPolicy fsyncPolicy,
+            long fsyncInterval,
+            TimeUnit unit) throws IOException {
+        if (segmentSize <= HEADER) {
+            throw new IllegalArgumentException("segmentSize too small: " + segmentSize);
+        }
+        if (fsyncPolicy == FsyncPolicy.PERIODIC && fsyncInterval <= 0) {
+            throw new IllegalArgumentException("PERIODIC fsync needs a positive interval: " + fsyncInterval);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.codec = codec;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = unit.toNanos(fsyncInterval);
+
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            segment = map(segmentPath(0), segmentSize);
+            nextSequence = 0;
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            long size = Files.size(last);
+            if (size != segmentSize) {
+                throw new IllegalArgumentException("Journal " + directory + " was created with segmentSize " + size
+                        + ", not " + segmentSize);
+            }
+            segment = map(last, segmentSize);
+            nextSequence = firstSequence(last);
+            int position = 0;
+            int length;
+            while ((length = recordLength(segment, position, nextSequence, crc)) > 0) {
+                nextSequence++;
+                position += length;
+            }
+            segment.position(position);
+            truncate(position);
+        }
+    }
+
+    /**
+     * Zeroes what a crash left behind the last complete record, so a later append cannot end up in front
+     * of bytes that look like a record.
+     */
+    private void truncate(int position) {
+        int end = position;
+        for (int i = position; i < segmentSize; i++) {
+            if (segment.get(i) != 0) {
+                end = i + 1;
+            }
+        }
+        if (end > position) {
+            for (int i = position; i < end; i++) {
+                segment.put(i, (byte) 0);
+            }
+            segment.force();
+        }
+    }
+
+    @Override
+    public void onEvent(EVENT event, long sequence, boolean endOfBatch) {
+        try {
+            append(event);
+            if (endOfBatch) {
+                endOfBatch();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void append(EVENT event) throws IOException {
+        int start = segment.position();
+        if (!tryAppend(event, start)) {
+            roll(start);
+            if (!tryAppend(event, 0)) {
+                throw new IllegalStateException("Event does not fit into a journal segment of " + segmentSize + " bytes");
+            }
+        }
+        // checked per record, so a long batch cannot stretch the interval
+        if (fsyncPolicy == FsyncPolicy.PERIODIC && System.nanoTime() - lastForceNanos >= fsyncIntervalNanos) {
+            force();
+        }
+    }
+
+    private boolean tryAppend(EVENT event, int start) {
+        if (start + HEADER > segmentSize) {
+            return false;
+        }
+        try {
+            segment.position(start + HEADER);
+            codec.encode(event, segment);
+        } catch (BufferOverflowException e) {
+            segment.position(start);
+            return false;
+        }
+        int end = segment.position();
+        segment.putLong(start + SEQUENCE, nextSequence++);
+        segment.putInt(start + CHECKSUM, checksum(segment, start, end, crc));
+        segment.putInt(start, end - start);
+        segment.position(end);
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * @return CRC32 of the record's sequence and payload; moves the buffer's position
+     */
+    private static int checksum(ByteBuffer buffer, int start, int end, CRC32 crc) {
+        int limit = buffer.limit();
+        buffer.limit(end).position(start + SEQUENCE);
+        crc.reset();
+        crc.update(buffer);
+        buffer.limit(limit);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * @return length of the complete record with the expected sequence at the position, 0 if the segment
+     * ends there, {@link #ROLLED} if the journal continues in the next segment, or -2 if the record is
+     * torn or otherwise invalid
+     */
+    private static int recordLength(ByteBuffer buffer, int position, long expectedSequence, CRC32 crc) {
+        int limit = buffer.limit();
+        if (position + HEADER > limit) {
+            return 0;
+        }
+        int length = buffer.getInt(position);
+        if (length == 0 || length == ROLLED) {
+            return length;
+        }
+        if (length < HEADER || length > limit - position
+                || buffer.getLong(position + SEQUENCE) != expectedSequence
+                || buffer.getInt(position + CHECKSUM) != checksum(buffer, position, position + length, crc)) {
+            return INVALID;
+        }
+        return length;
+    }
+
+    private void roll(int start) throws IOException {
+        if (start + Integer.BYTES <= segmentSize) {
+            segment.putInt(start, ROLLED);
+        }
+        segment.force();
+        MappedBuffers.unmap(segment);
+        segment = null; // not left pointing at unmapped memory if the next segment cannot be mapped
+        segment = map(segmentPath(nextSequence), segmentSize);
+        dirty = false;
+        lastForceNanos = System.nanoTime();
+    }
+
+    private void endOfBatch() {
+        if (dirty && fsyncPolicy == FsyncPolicy.PER_BATCH) {
+            force();
+        }
+    }
+
+    public void force() {
+        segment.force();
+        dirty = false;
+        lastForceNanos = System.nanoTime();
+    }
+
+    /**
+     * @return journal sequence the next appended event gets, equal to the number of events ever journaled
+     */
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Forces and unmaps the current segment; the journal cannot be appended to afterwards.
+     */
+    @Override
+    public void close() {
+        if (segment != null) {
+            force();
+            MappedBuffers.unmap(segment);
+            segment = null;
+        }
+    }
+
+    /**
+     * Replays the journaled events from the given journal sequence on, e.g. into a fresh Disactor before
+     * it takes new traffic. Each record is decoded into {@code scratch} and handed to the actor. Segments are
+     * read into one heap buffer rather than mapped, so nothing stays mapped afterwards. Replay stops at
+     * the first invalid record.
+     *
+     * @return journal sequence after the last replayed event
+     */
+    public static <EVENT extends Event<EVENT>> long replay(
+            Path directory,
+            long fromSequence,
+            EventCodec<EVENT> codec,
+            EVENT scratch,
+            Actor<EVENT> actor) throws IOException {
+        List<Path> segments = segments(directory);
+        int first = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            if (firstSequence(segments.get(i)) <= fromSequence) {
+                first = i;
+            }
+        }
+        long next = fromSequence;
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = null;
+        for (int i = first; i < segments.size(); i++) {
+            Path path = segments.get(i);
+            int size;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                size = (int) channel.size();
+                if (buffer == null || buffer.capacity() < size) {
+                    buffer = ByteBuffer.allocate(size).order(ByteOrder.nativeOrder());
+                }
+                buffer.clear().limit(size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // read the whole segment
+                }
+                buffer.flip();
+            }
+            long sequence = firstSequence(path);
+            int position = 0;
+            int length;
+            while ((length = recordLength(buffer, position, sequence, crc)) > 0) {
+                if (sequence >= fromSequence) {
+                    buffer.limit(position + length).position(position + HEADER);
+                    codec.decode(buffer, scratch);
+                    buffer.limit(size);
+                    actor.onEvent(scratch);
+                    next = sequence + 1;
+                }
+                sequence++;
+                position += length;
+            }
+            if (length == INVALID) {
+                break;
+            }
+        }
+        return next;
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+                for (Path segment : stream) {
+                    segments.add(segment);
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static MappedByteBuffer map(Path path, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.nativeOrder());
+            return buffer;
+        }
+    }
+
+}
@@ -0,0 +1,335 @@
+package com.disactor.lazy;
+
+import com.disactor.Actor;
+import com.disactor.Disactor;
+import com.disactor.Event;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Generates, once per interface, a proxy class that writes each call into an {@link InvocationEvent} kept per
+ * calling thread and publishes it with {@link Disactor#onEvent}, and a dispatcher {@link Actor} that replays
+ * the call on the target. The generated code calls the Disactor and the target directly: no boxing,
+ * no {@code Object[]} arguments and no reflection per call.
+ */
+final class DisactorProxyGenerator {
+
+    private static final String DISACTOR = Type.getInternalName(Disactor.class);
+    private static final String THREAD_LOCAL = Type.getInternalName(ThreadLocal.class);
+    private static final String INVOCATION_EVENT = Type.getInternalName(InvocationEvent.class);
+    private static final String ACTOR = Type.getInternalName(Actor.class);
+    private static final String OBJECT = Type.getInternalName(Object.class);
+
+    private static final ClassValue<DisactorProxyGenerator> GENERATORS = new ClassValue<DisactorProxyGenerator>() {
+        @Override
+        protected DisactorProxyGenerator computeValue(Class<?> type) {
+            return new DisactorProxyGenerator(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final Method[] methods;
+    private final int maxLongs;
+    private final int maxObjects;
+    private final Class<?> proxyClass;
+    private final Class<?> dispatcherClass;
+
+    private DisactorProxyGenerator(Class<?> type) {
+        if (!type.isInterface() || !Modifier.isPublic(type.getModifiers())) {
+            throw new IllegalArgumentException(type + " is not a public interface");
+        }
+        this.type = type;
+        this.methods = actorMethods(type);
+        int longs = 0;
+        int objects = 0;
+        for (Method method : methods) {
+            int methodLongs = 0;
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                if (parameterType.isPrimitive()) {
+                    methodLongs++;
+                }
+            }
+            longs = Math.max(longs, methodLongs);
+            objects = Math.max(objects, method.getParameterCount() - methodLongs);
+        }
+        this.maxLongs = longs;
+        this.maxObjects = objects;
+
+        String baseName = "com/disactor/lazy/generated/" + type.getName().replace('.', '_');
+        GeneratedClassLoader classLoader = new GeneratedClassLoader(
+                type.getClassLoader() != null ? type.getClassLoader() : DisactorProxyGenerator.class.getClassLoader());
+        this.proxyClass = classLoader.define(baseName + "$$DisactorProxy", generateProxy(baseName + "$$DisactorProxy"));
+        this.dispatcherClass = classLoader.define(baseName + "$$DisactorDispatcher", generateDispatcher(baseName + "$$DisactorDispatcher"));
+    }
+
+    static DisactorProxyGenerator forInterface(Class<?> type) {
+        return GENERATORS.get(type);
+    }
+
+    InvocationEvent newEvent() {
+        return new InvocationEvent(maxLongs, maxObjects);
+    }
+
+    Object newProxy(Disactor<InvocationEvent> disactor) {
+        ThreadLocal<InvocationEvent> events = ThreadLocal.withInitial(this::newEvent);
+        try {
+            return proxyClass.getConstructor(Disactor.class, ThreadLocal.class).newInstance(disactor, events);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create proxy for " + type, e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    Actor<InvocationEvent> newDispatcher(Object target) {
+        try {
+            return (Actor<InvocationEvent>) dispatcherClass.getConstructor(type).newInstance(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create dispatcher for " + type, e);
+        }
+    }
+
+    private static Method[] actorMethods(Class<?> type) {
+        List<Method> methods = new ArrayList<>();
+        Set<String> signatures = new HashSet<>();
+        for (Method method : type.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers())) {
+                continue;
+            }
+            if (method.getReturnType() != void.class) {
+                throw new IllegalArgumentException("Actor methods must return void: " + method);
+            }
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                if (!isPublic(parameterType)) {
+                    // the generated classes live in their own package and cast each argument to its type
+                    throw new IllegalArgumentException("Actor method parameter types must be public: " + method);
+                }
+            }
+            if (signatures.add(method.getName() + Type.getMethodDescriptor(method))) {
+                methods.add(method);
+            }
+        }
+        return methods.toArray(new Method[0]);
+    }
+
+    private static boolean isPublic(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+            if (!c.isPrimitive() && !Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private byte[] generateProxy(String name) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, name, null, OBJECT, new String[]{Type.getInternalName(type)});
+        cw.visitField(ACC_PRIVATE | ACC_FINAL, "disactor", "L" + DISACTOR + ";", null, null).visitEnd();
+        cw.visitField(ACC_PRIVATE | ACC_FINAL, "events", "L" + THREAD_LOCAL + ";", null, null).visitEnd();
+
+        MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>", "(L" + DISACTOR + ";L" + THREAD_LOCAL + ";)V", null, null);
+        init.visitCode();
+        init.visitVarInsn(ALOAD, 0);
+        init.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        init.visitVarInsn(ALOAD, 0);
+        init.visitVarInsn(ALOAD, 1);
+        init.visitFieldInsn(PUTFIELD, name, "disactor", "L" + DISACTOR + ";");
+        init.visitVarInsn(ALOAD, 0);
+        init.visitVarInsn(ALOAD, 2);
+        init.visitFieldInsn(PUTFIELD, name, "events", "L" + THREAD_LOCAL + ";");
+        init.visitInsn(RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        for (int m = 0; m < methods.length; m++) {
+            Method method = methods[m];
+            MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, method.getName(), Type.getMethodDescriptor(method), null, null);
+            mv.visitCode();
+            int local = 1;
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                local += Type.getType(parameterType).getSize();
+            }
+            int event = local;
+
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitFieldInsn(GETFIELD, name, "events", "L" + THREAD_LOCAL + ";");
+            mv.visitMethodInsn(INVOKEVIRTUAL, THREAD_LOCAL, "get", "()L" + OBJECT + ";", false);
+            mv.visitTypeInsn(CHECKCAST, INVOCATION_EVENT);
+            mv.visitVarInsn(ASTORE, event);
+
+            mv.visitVarInsn(ALOAD, event);
+            pushInt(mv, m);
+            mv.visitMethodInsn(INVOKEVIRTUAL, INVOCATION_EVENT, "setMethod", "(I)V", false);
+
+            int arg = 1;
+            int longIndex = 0;
+            int objectIndex = 0;
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                Type argType = Type.getType(parameterType);
+                mv.visitVarInsn(ALOAD, event);
+                if (parameterType.isPrimitive()) {
+                    pushInt(mv, longIndex++);
+                    mv.visitVarInsn(argType.getOpcode(ILOAD), arg);
+                    toLong(mv, parameterType);
+                    mv.visitMethodInsn(INVOKEVIRTUAL, INVOCATION_EVENT, "setLong", "(IJ)V", false);
+                } else {
+                    pushInt(mv, objectIndex++);
+                    mv.visitVarInsn(ALOAD, arg);
+                    mv.visitMethodInsn(INVOKEVIRTUAL, INVOCATION_EVENT, "setObject", "(IL" + OBJECT + ";)V", false);
+                }
+                arg += argType.getSize();
+            }
+
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitFieldInsn(GETFIELD, name, "disactor", "L" + DISACTOR + ";");
+            mv.visitVarInsn(ALOAD, event);
+            mv.visitMethodInsn(INVOKEVIRTUAL, DISACTOR, "onEvent", "(" + Type.getDescriptor(Event.class) + ")V", false);
+            mv.visitVarInsn(ALOAD, event);
+            mv.visitMethodInsn(INVOKEVIRTUAL, INVOCATION_EVENT, "clear", "()V", false);
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private byte[] generateDispatcher(String name) {
+        String target = Type.getInternalName(type);
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                return OBJECT;
+            }
+        };
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, name, null, OBJECT, new String[]{ACTOR});
+        cw.visitField(ACC_PRIVATE | ACC_FINAL, "target", "L" + target + ";", null, null).visitEnd();
+
+        MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>", "(L" + target + ";)V", null, null);
+        init.visitCode();
+        init.visitVarInsn(ALOAD, 0);
+        init.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        init.visitVarInsn(ALOAD, 0);
+        init.visitVarInsn(ALOAD, 1);
+        init.visitFieldInsn(PUTFIELD, name, "target", "L" + target + ";");
+        init.visitInsn(RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "onEvent", "(" + Type.getDescriptor(Event.class) + ")V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitTypeInsn(CHECKCAST, INVOCATION_EVENT);
+        mv.visitVarInsn(ASTORE, 2);
+        Label end = new Label();
+        if (methods.length > 0) {
+            Label[] cases = new Label[methods.length];
+            for (int m = 0; m < cases.length; m++) {
+                cases[m] = new Label();
+            }
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitMethodInsn(INVOKEVIRTUAL, INVOCATION_EVENT, "getMethod", "()I", false);
+            mv.visitTableSwitchInsn(0, methods.length - 1, end, cases);
+            for (int m = 0; m < methods.length; m++) {
+                Method method = methods[m];
+                mv.visitLabel(cases[m]);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, name, "target", "L" + target + ";");
+                int longIndex = 0;
+                int objectIndex = 0;
+                for (Class<?> parameterType : method.getParameterTypes()) {
+                    mv.visitVarInsn(ALOAD, 2);
+                    if (parameterType.isPrimitive()) {
+                        pushInt(mv, longIndex++);
+                        mv.visitMethodInsn(INVOKEVIRTUAL, INVOCATION_EVENT, "getLong", "(I)J", false);
+                        fromLong(mv, parameterType);
+                    } else {
+                        pushInt(mv, objectIndex++);
+                        mv.visitMethodInsn(INVOKEVIRTUAL, INVOCATION_EVENT, "getObject", "(I)L" + OBJECT + ";", false);
+                        mv.visitTypeInsn(CHECKCAST, Type.getInternalName(parameterType));
+                    }
+                }
+                // the arguments are on the stack, the slot need not keep them reachable
+                mv.visitVarInsn(ALOAD, 2);
+                mv.visitMethodInsn(INVOKEVIRTUAL, INVOCATION_EVENT, "clear", "()V", false);
+                mv.visitMethodInsn(INVOKEINTERFACE, target, method.getName(), Type.getMethodDescriptor(method), true);
+                mv.visitJumpInsn(GOTO, end);
+            }
+        }
+        mv.visitLabel(end);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void pushInt(MethodVisitor mv, int value) {
+        if (value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, value);
+        } else {
+            mv.visitIntInsn(SIPUSH, value);
+        }
+    }
+
+    private static void toLong(MethodVisitor mv, Class<?> type) {
+        if (type == long.class) {
+            return;
+        }
+        if (type == double.class) {
+            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "doubleToRawLongBits", "(D)J", false);
+        } else if (type == float.class) {
+            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "floatToRawIntBits", "(F)I", false);
+            mv.visitInsn(I2L);
+        } else {
+            mv.visitInsn(I2L);
+        }
+    }
+
+    private static void fromLong(MethodVisitor mv, Class<?> type) {
+        if (type == long.class) {
+            return;
+        }
+        if (type == double.class) {
+            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "longBitsToDouble", "(J)D", false);
+            return;
+        }
+        mv.visitInsn(L2I);
+        if (type == float.class) {
+            mv.visitMethodInsn(INVOKESTATIC, "java/lang/Float", "intBitsToFloat", "(I)F", false);
+        } else if (type == byte.class) {
+            mv.visitInsn(I2B);
+        } else if (type == short.class) {
+            mv.visitInsn(I2S);
+        } else if (type == char.class) {
+            mv.visitInsn(I2C);
+        }
+    }
+
+    private static class GeneratedClassLoader extends ClassLoader {
+
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String internalName, byte[] bytes) {
+            return defineClass(internalName.replace('/', '.'), bytes, 0, bytes.length);
+        }
+    }
+
+}
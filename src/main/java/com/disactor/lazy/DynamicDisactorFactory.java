@@ -1,22 +1,64 @@
 package com.disactor.lazy;
 
-import java.lang.reflect.Proxy;
+import com.disactor.Disactor;
 
-public class DynamicDisactorFactory {
+/**
+ * Turns an ordinary interface into a typed actor: every call on the proxy returned by {@link #getObject()}
+ * becomes an {@link InvocationEvent} in a {@link Disactor} ring buffer and is replayed on the target from
+ * the actor thread. Interface methods must return void and take only public parameter types. Proxy calls go
+ * through {@link Disactor#onEvent}, so the builder's overflow policy and metrics apply to them.
+ */
+public class DynamicDisactorFactory<T> {
 
-    private final String type;
+    private final Class<T> type;
+    private final T target;
+    private final Disactor.Builder<InvocationEvent> builder;
+    private Disactor<InvocationEvent> disactor;
+    private T proxy;
 
-    public DynamicDisactorFactory(String type) {
+    @SuppressWarnings("unchecked")
+    public DynamicDisactorFactory(String type, T target) throws ClassNotFoundException {
+        this((Class<T>) Class.forName(type), target);
+    }
+
+    public DynamicDisactorFactory(Class<T> type, T target) {
+        this(type, target, Disactor.builder());
+    }
+
+    /**
+     * @param builder configures buffer size, wait strategy etc.; a copy of it gets the event factory
+     *                and the dispatcher as its last stage, the builder itself is left as it is
+     */
+    public DynamicDisactorFactory(Class<T> type, T target, Disactor.Builder<InvocationEvent> builder) {
         this.type = type;
+        this.target = target;
+        this.builder = builder;
     }
 
+    /**
+     * Creates and starts the backing {@link Disactor} on first use.
+     */
+    public synchronized T getObject() {
+        if (proxy == null) {
+            DisactorProxyGenerator generator = DisactorProxyGenerator.forInterface(type);
+            disactor = builder.copy()
+                    .eventFactory(generator::newEvent)
+                    .actor(generator.newDispatcher(target))
+                    .build();
+            disactor.start();
+            proxy = type.cast(generator.newProxy(disactor));
+        }
+        return proxy;
+    }
 
-    public Object getObject() throws Exception {
-        //fixme: fix deprecated
-        Class proxyClass = Proxy.getProxyClass(this.getClass().getClassLoader(), Class.forName(type));
-        Object instance = proxyClass.newInstance();
+    public synchronized Disactor<InvocationEvent> getDisactor() {
+        return disactor;
+    }
 
-        return instance;
+    public synchronized void stop() {
+        if (disactor != null) {
+            disactor.stop();
+        }
     }
 
 }
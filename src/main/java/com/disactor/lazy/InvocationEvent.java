@@ -0,0 +1,55 @@
+package com.disactor.lazy;
+
+import com.disactor.Trace;
+
+import java.util.Arrays;
+
+/**
+ * Ring buffer slot for a call on a {@link DynamicDisactorFactory} proxy: the method index plus its arguments,
+ * primitives in {@code longs} (floating point as raw bits) and references in {@code objects}.
+ * The arrays are sized once per interface, so writing a call into a slot allocates nothing.
+ * Calls are not traced, the {@link Trace} has depth 0 instead of the default preallocated one.
+ */
+public class InvocationEvent extends MagicEvent<InvocationEvent> {
+
+    private final long[] longs;
+    private final Object[] objects;
+    private int method;
+
+    public InvocationEvent(int maxLongs, int maxObjects) {
+        super(new Trace(0));
+        this.longs = new long[maxLongs];
+        this.objects = new Object[maxObjects];
+    }
+
+    public int getMethod() {
+        return method;
+    }
+
+    public void setMethod(int method) {
+        this.method = method;
+    }
+
+    public long getLong(int index) {
+        return longs[index];
+    }
+
+    public void setLong(int index, long value) {
+        longs[index] = value;
+    }
+
+    public Object getObject(int index) {
+        return objects[index];
+    }
+
+    public void setObject(int index, Object value) {
+        objects[index] = value;
+    }
+
+    /**
+     * Drops the references to the arguments, so a slot does not keep them reachable until it is reused.
+     */
+    public void clear() {
+        Arrays.fill(objects, null);
+    }
+}
@@ -0,0 +1,233 @@
+package com.disactor.lazy;
+
+import com.disactor.Copyable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Builds one method handle per instance field declared below {@link MagicCopyable} that copies the field.
+ * Plain fields are assigned, final {@link Copyable} fields are copied into with their own copyFrom and final
+ * arrays element by element. Any other final field would keep stale data in a reused slot, so a class with one is
+ * rejected. The handles are built once with reflection, then put into
+ * {@code static final} fields of a small class generated for the event class, so the JIT treats them as
+ * constants and inlines every field copy into the generated {@link BiConsumer#accept}.
+ */
+final class MagicCopier {
+
+    private static final String OBJECT = Type.getInternalName(Object.class);
+    private static final String METHOD_HANDLE = Type.getInternalName(MethodHandle.class);
+    private static final String COPIER_DESCRIPTOR = "(L" + OBJECT + ";L" + OBJECT + ";)V";
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodHandle COPY_FROM;
+    private static final MethodHandle COPY_ARRAY;
+
+    static {
+        try {
+            COPY_FROM = LOOKUP.findVirtual(Copyable.class, "copyFrom", MethodType.methodType(void.class, Copyable.class));
+            COPY_ARRAY = LOOKUP.findStatic(MagicCopier.class, "copyArray", MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final ClassValue<BiConsumer<Object, Object>> COPIERS = new ClassValue<BiConsumer<Object, Object>>() {
+        @Override
+        protected BiConsumer<Object, Object> computeValue(Class<?> type) {
+            // a public class can be named by the generated copier, which then casts once instead of per field
+            Class<?> target = Modifier.isPublic(type.getModifiers()) ? type : Object.class;
+            return new ConstantClassLoader(type, createFieldCopiers(type, target)).newCopier(target);
+        }
+    };
+
+    private MagicCopier() {
+    }
+
+    /**
+     * @return a copier taking {@code (to, from)}
+     */
+    static BiConsumer<Object, Object> forClass(Class<?> type) {
+        return COPIERS.get(type);
+    }
+
+    private static MethodHandle[] createFieldCopiers(Class<?> type, Class<?> target) {
+        List<MethodHandle> copiers = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != MagicCopyable.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                MethodHandle fieldCopier = createFieldCopier(field, target);
+                if (fieldCopier != null) {
+                    copiers.add(fieldCopier);
+                }
+            }
+        }
+        return copiers.toArray(new MethodHandle[0]);
+    }
+
+    private static MethodHandle createFieldCopier(Field field, Class<?> target) {
+        int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) || field.isSynthetic()) {
+            return null;
+        }
+        boolean isFinal = Modifier.isFinal(modifiers);
+        boolean isArray = field.getType().isArray();
+        if (isFinal && !isArray && !Copyable.class.isAssignableFrom(field.getType())) {
+            throw new IllegalStateException("Cannot copy final field " + field
+                    + ", make it non-final, Copyable or an array");
+        }
+        try {
+            field.setAccessible(true);
+            MethodHandle getter = LOOKUP.unreflectGetter(field);
+            MethodHandle copy;
+            if (isFinal && isArray) {
+                MethodHandle array = getter.asType(MethodType.methodType(Object.class, field.getDeclaringClass()));
+                copy = MethodHandles.filterArguments(COPY_ARRAY, 0, array, array);
+            } else if (isFinal) {
+                MethodHandle copyable = getter.asType(MethodType.methodType(Copyable.class, field.getDeclaringClass()));
+                copy = MethodHandles.filterArguments(COPY_FROM, 0, copyable, copyable);
+            } else {
+                copy = MethodHandles.filterArguments(LOOKUP.unreflectSetter(field), 1, getter);
+            }
+            return copy.asType(MethodType.methodType(void.class, target, target));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot copy field " + field, e);
+        }
+    }
+
+    private static void copyArray(Object to, Object from) {
+        int length = Array.getLength(to);
+        if (Array.getLength(from) != length) {
+            throw new IllegalArgumentException("Cannot copy an array of " + Array.getLength(from)
+                    + " elements into one of " + length);
+        }
+        System.arraycopy(from, 0, to, 0, length);
+    }
+
+    /**
+     * <pre>
+     * public final class ...$$MagicCopier implements BiConsumer {
+     *     private static final MethodHandle F0, F1, ...; // from ((Supplier) getClassLoader()).get()
+     *     public void accept(Object to, Object from) {
+     *         Target t = (Target) to, f = (Target) from;
+     *         F0.invokeExact(t, f); F1.invokeExact(t, f); ...
+     *     }
+     * }
+     * </pre>
+     */
+    private static byte[] generateCopier(String name, Class<?> target, int fields) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(V1_8, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, name, null, OBJECT,
+                new String[]{Type.getInternalName(BiConsumer.class)});
+        for (int i = 0; i < fields; i++) {
+            cw.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, "F" + i, "L" + METHOD_HANDLE + ";", null, null).visitEnd();
+        }
+
+        MethodVisitor clinit = cw.visitMethod(ACC_STATIC, "<clinit>", "()V", null, null);
+        clinit.visitCode();
+        clinit.visitLdcInsn(Type.getObjectType(name));
+        clinit.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Class", "getClassLoader", "()Ljava/lang/ClassLoader;", false);
+        String supplier = Type.getInternalName(Supplier.class);
+        clinit.visitTypeInsn(CHECKCAST, supplier);
+        clinit.visitMethodInsn(INVOKEINTERFACE, supplier, "get", "()L" + OBJECT + ";", true);
+        clinit.visitTypeInsn(CHECKCAST, "[L" + METHOD_HANDLE + ";");
+        clinit.visitVarInsn(ASTORE, 0);
+        for (int i = 0; i < fields; i++) {
+            clinit.visitVarInsn(ALOAD, 0);
+            pushInt(clinit, i);
+            clinit.visitInsn(AALOAD);
+            clinit.visitFieldInsn(PUTSTATIC, name, "F" + i, "L" + METHOD_HANDLE + ";");
+        }
+        clinit.visitInsn(RETURN);
+        clinit.visitMaxs(0, 0);
+        clinit.visitEnd();
+
+        MethodVisitor init = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(ALOAD, 0);
+        init.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        init.visitInsn(RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        MethodVisitor accept = cw.visitMethod(ACC_PUBLIC, "accept", COPIER_DESCRIPTOR, null, null);
+        accept.visitCode();
+        Type targetType = Type.getType(target);
+        accept.visitVarInsn(ALOAD, 1);
+        accept.visitTypeInsn(CHECKCAST, targetType.getInternalName());
+        accept.visitVarInsn(ASTORE, 1);
+        accept.visitVarInsn(ALOAD, 2);
+        accept.visitTypeInsn(CHECKCAST, targetType.getInternalName());
+        accept.visitVarInsn(ASTORE, 2);
+        String fieldDescriptor = Type.getMethodDescriptor(Type.VOID_TYPE, targetType, targetType);
+        for (int i = 0; i < fields; i++) {
+            accept.visitFieldInsn(GETSTATIC, name, "F" + i, "L" + METHOD_HANDLE + ";");
+            accept.visitVarInsn(ALOAD, 1);
+            accept.visitVarInsn(ALOAD, 2);
+            accept.visitMethodInsn(INVOKEVIRTUAL, METHOD_HANDLE, "invokeExact", fieldDescriptor, false);
+        }
+        accept.visitInsn(RETURN);
+        accept.visitMaxs(0, 0);
+        accept.visitEnd();
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void pushInt(MethodVisitor mv, int value) {
+        if (value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, value);
+        } else {
+            mv.visitIntInsn(SIPUSH, value);
+        }
+    }
+
+    /**
+     * Defines the copier class of one event class and hands it the method handles it keeps as constants.
+     */
+    private static class ConstantClassLoader extends ClassLoader implements Supplier<Object> {
+
+        private final Class<?> type;
+        private final MethodHandle[] fieldCopiers;
+
+        /**
+         * The event class's loader is the parent, so the copier can name the event class.
+         */
+        ConstantClassLoader(Class<?> type, MethodHandle[] fieldCopiers) {
+            super(type.getClassLoader() != null ? type.getClassLoader() : MagicCopier.class.getClassLoader());
+            this.type = type;
+            this.fieldCopiers = fieldCopiers;
+        }
+
+        @Override
+        public Object get() {
+            return fieldCopiers;
+        }
+
+        @SuppressWarnings("unchecked")
+        BiConsumer<Object, Object> newCopier(Class<?> target) {
+            String name = "com/disactor/lazy/generated/" + type.getName().replace('.', '_') + "$$MagicCopier";
+            byte[] bytes = generateCopier(name, target, fieldCopiers.length);
+            try {
+                return (BiConsumer<Object, Object>) defineClass(name.replace('/', '.'), bytes, 0, bytes.length)
+                        .getConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Cannot create copier for " + type, e);
+            }
+        }
+    }
+
+}
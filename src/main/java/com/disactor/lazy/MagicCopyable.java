@@ -2,12 +2,18 @@ package com.disactor.lazy;
 
 import com.disactor.Copyable;
 
-//fixme: implement
+import java.util.function.BiConsumer;
+
+/**
+ * Copies all fields of the subclass with a copier generated once per class, see {@link MagicCopier}.
+ */
 public class MagicCopyable<T extends Copyable<T>> implements Copyable<T> {
 
+    private final BiConsumer<Object, Object> copier = MagicCopier.forClass(getClass());
+
     @Override
     public void copyFrom(T from) {
-
+        copier.accept(this, from);
     }
 
 }
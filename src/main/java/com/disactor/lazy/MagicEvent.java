@@ -5,7 +5,15 @@ import com.disactor.Trace;
 
 public class MagicEvent<T extends MagicEvent<T>> extends MagicCopyable<T> implements Event<T> {
 
-    private final Trace trace = new Trace();
+    private final Trace trace;
+
+    public MagicEvent() {
+        this(new Trace());
+    }
+
+    protected MagicEvent(Trace trace) {
+        this.trace = trace;
+    }
 
     @Override
     public Trace getTrace() {
@@ -0,0 +1,42 @@
+package com.disactor.metrics;
+
+import com.disactor.Disactor;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Registers {@link Disactor} metrics with the platform MBean server as {@code com.disactor:type=Disactor,name=...}.
+ */
+public final class DisactorJmx {
+
+    private DisactorJmx() {
+    }
+
+    public static ObjectName register(String name, Disactor<?> disactor) throws JMException {
+        ObjectName objectName = new ObjectName("com.disactor:type=Disactor,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new DisactorMXBean() {
+            @Override
+            public DisactorMetrics getMetrics() {
+                return disactor.getMetrics();
+            }
+
+            @Override
+            public long getBacklog() {
+                return disactor.getMetrics().getBacklog();
+            }
+
+            @Override
+            public long getRejectedCount() {
+                return disactor.getRejectedCount();
+            }
+        }, objectName);
+        return objectName;
+    }
+
+    public static void unregister(ObjectName objectName) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    }
+
+}
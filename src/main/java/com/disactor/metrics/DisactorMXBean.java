@@ -0,0 +1,11 @@
+package com.disactor.metrics;
+
+public interface DisactorMXBean {
+
+    DisactorMetrics getMetrics();
+
+    long getBacklog();
+
+    long getRejectedCount();
+
+}
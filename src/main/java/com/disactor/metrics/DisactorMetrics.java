@@ -0,0 +1,85 @@
+package com.disactor.metrics;
+
+/**
+ * Point-in-time view of one {@link com.disactor.Disactor}. Counters come straight from the ring buffer
+ * sequences, the latency histograms are only filled when latency metrics are enabled on the builder.
+ */
+public class DisactorMetrics {
+
+    private final int bufferSize;
+    private final long remainingCapacity;
+    private final long publishedCount;
+    private final long handledCount;
+    private final long rejectedCount;
+    private final LatencyHistogram.Snapshot queueTime;
+    private final LatencyHistogram.Snapshot serviceTime;
+
+    public DisactorMetrics(
+            int bufferSize,
+            long remainingCapacity,
+            long publishedCount,
+            long handledCount,
+            long rejectedCount,
+            LatencyHistogram.Snapshot queueTime,
+            LatencyHistogram.Snapshot serviceTime) {
+        this.bufferSize = bufferSize;
+        this.remainingCapacity = remainingCapacity;
+        this.publishedCount = publishedCount;
+        this.handledCount = handledCount;
+        this.rejectedCount = rejectedCount;
+        this.queueTime = queueTime;
+        this.serviceTime = serviceTime;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public long getRemainingCapacity() {
+        return remainingCapacity;
+    }
+
+    /**
+     * @return events published (claimed, for multi-producer ring buffers) but not yet handled by every actor
+     */
+    public long getBacklog() {
+        return Math.max(0, publishedCount - handledCount);
+    }
+
+    public long getPublishedCount() {
+        return publishedCount;
+    }
+
+    public long getHandledCount() {
+        return handledCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * @return time from publish until the first actor picks the event up
+     */
+    public LatencyHistogram.Snapshot getQueueTime() {
+        return queueTime;
+    }
+
+    /**
+     * @return time spent in the actors' onEvent, all actors merged
+     */
+    public LatencyHistogram.Snapshot getServiceTime() {
+        return serviceTime;
+    }
+
+    @Override
+    public String toString() {
+        return "DisactorMetrics{bufferSize=" + bufferSize
+                + ", backlog=" + getBacklog()
+                + ", published=" + publishedCount
+                + ", handled=" + handledCount
+                + ", rejected=" + rejectedCount
+                + ", queueTime=[" + queueTime + "]"
+                + ", serviceTime=[" + serviceTime + "]}";
+    }
+}
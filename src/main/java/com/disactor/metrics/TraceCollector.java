@@ -0,0 +1,64 @@
+package com.disactor.metrics;
+
+/**
+ * Per-hop latency across a graph of traced {@link com.disactor.Disactor}s. Every traced hop adds two entries to
+ * the event's {@link com.disactor.Trace}: an enqueue span stamped on publish and a dequeue span stamped just
+ * before the actor runs. At dequeue the hop records its queue time and the time since the first entry of the
+ * trace, so the actor adding latency to a chain stands out. Recording allocates nothing.
+ * <p>
+ * Actor ids are small ints below {@code maxActors}; each id must be used by a single Disactor.
+ */
+public class TraceCollector {
+
+    private final LatencyHistogram[] queueTimes;
+    private final LatencyHistogram[] sinceOrigin;
+
+    public TraceCollector(int maxActors) {
+        this.queueTimes = new LatencyHistogram[maxActors];
+        this.sinceOrigin = new LatencyHistogram[maxActors];
+        for (int i = 0; i < maxActors; i++) {
+            queueTimes[i] = new LatencyHistogram();
+            sinceOrigin[i] = new LatencyHistogram();
+        }
+    }
+
+    public static long enqueueSpan(int actorId) {
+        return (long) actorId << 1;
+    }
+
+    public static long dequeueSpan(int actorId) {
+        return ((long) actorId << 1) | 1;
+    }
+
+    public static int actorId(long span) {
+        return (int) (span >>> 1);
+    }
+
+    public static boolean isDequeue(long span) {
+        return (span & 1) != 0;
+    }
+
+    public void record(int actorId, long queueNanos, long sinceOriginNanos) {
+        queueTimes[actorId].record(queueNanos);
+        sinceOrigin[actorId].record(sinceOriginNanos);
+    }
+
+    /**
+     * @return time events waited in the ring buffer of the given actor
+     */
+    public LatencyHistogram.Snapshot getQueueTime(int actorId) {
+        return queueTimes[actorId].snapshot();
+    }
+
+    /**
+     * @return time from the first traced publish of an event until the given actor dequeued it
+     */
+    public LatencyHistogram.Snapshot getSinceOrigin(int actorId) {
+        return sinceOrigin[actorId].snapshot();
+    }
+
+    public int getMaxActors() {
+        return queueTimes.length;
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.disactor.offheap;
+
+import com.disactor.Event;
+import com.disactor.Trace;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Event whose fields live in a fixed-size region of a {@link ByteBuffer} instead of Java fields. Ring buffer slots
+ * created by {@link OffHeapEventFactory} share large direct buffers, so the heap only holds a small flyweight per slot
+ * and the payload stays out of the old generation. Subclasses define the layout as offsets and read/write in place:
+ * <pre>
+ * public class Quote extends OffHeapEvent&lt;Quote&gt; {
+ *     static final int PRICE = 0;
+ *     static final int QUANTITY = 8;
+ *     static final int SIZE = 16;
+ *
+ *     public Quote(ByteBuffer memory) { super(memory); }
+ *     public Quote() { super(SIZE); }
+ *
+ *     public double getPrice() { return memory().getDouble(PRICE); }
+ *     public void setPrice(double price) { memory().putDouble(PRICE, price); }
+ * }
+ * </pre>
+ * The trace stays on heap in lazy mode, it costs nothing until something is traced.
+ */
+public abstract class OffHeapEvent<T extends OffHeapEvent<T>> implements Event<T> {
+
+    private final ByteBuffer memory;
+    private final Trace trace = new Trace(
+            Integer.valueOf(System.getProperty("com.disactor.trace.depth", "1024")), Trace.Mode.LAZY);
+
+    /**
+     * @param memory region of exactly this event's size, as handed out by {@link OffHeapEventFactory}
+     */
+    protected OffHeapEvent(ByteBuffer memory) {
+        this.memory = memory.order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Standalone event on a heap buffer, e.g. for producers that build an event before publishing it.
+     */
+    protected OffHeapEvent(int size) {
+        this(ByteBuffer.allocate(size));
+    }
+
+    protected final ByteBuffer memory() {
+        return memory;
+    }
+
+    public int size() {
+        return memory.capacity();
+    }
+
+    @Override
+    public Trace getTrace() {
+        return trace;
+    }
+
+    /**
+     * Bulk copies the whole region with absolute long reads and writes, positions are left untouched.
+     */
+    @Override
+    public void copyFrom(T from) {
+        ByteBuffer source = from.memory();
+        int size = Math.min(memory.capacity(), source.capacity());
+        int i = 0;
+        for (; i + Long.BYTES <= size; i += Long.BYTES) {
+            memory.putLong(i, source.getLong(i));
+        }
+        for (; i < size; i++) {
+            memory.put(i, source.get(i));
+        }
+        trace.copyFrom(from.getTrace());
+    }
+
+}
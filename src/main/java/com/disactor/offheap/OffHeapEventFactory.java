@@ -0,0 +1,59 @@
+package com.disactor.offheap;
+
+import com.lmax.disruptor.EventFactory;
+
+import java.nio.ByteBuffer;
+import java.util.function.Function;
+
+/**
+ * Hands out ring buffer slots carved from direct buffers of up to 1GB each, so buffers of several GB are possible
+ * (within -XX:MaxDirectMemorySize). Slot regions are rounded up to 8 bytes to keep longs aligned.
+ * Use one factory per ring buffer, it allocates exactly the given number of slots.
+ */
+public class OffHeapEventFactory<T extends OffHeapEvent<T>> implements EventFactory<T> {
+
+    private static final int MAX_CHUNK_BYTES = 1 << 30;
+
+    private final int slotSize;
+    private final int alignedSlotSize;
+    private final int slotsPerChunk;
+    private final Function<ByteBuffer, T> constructor;
+    private long remainingSlots;
+    private ByteBuffer chunk;
+    private int slotsInChunk;
+    private int slotInChunk;
+
+    /**
+     * @param slotSize    bytes of one event
+     * @param slots       number of slots to allocate, the ring buffer size
+     * @param constructor creates the flyweight over a slot region, usually {@code Quote::new}
+     */
+    public OffHeapEventFactory(int slotSize, int slots, Function<ByteBuffer, T> constructor) {
+        if (slotSize <= 0 || slotSize > MAX_CHUNK_BYTES) {
+            throw new IllegalArgumentException("slotSize out of range: " + slotSize);
+        }
+        this.slotSize = slotSize;
+        this.alignedSlotSize = (slotSize + 7) & ~7;
+        this.slotsPerChunk = MAX_CHUNK_BYTES / alignedSlotSize;
+        this.constructor = constructor;
+        this.remainingSlots = slots;
+    }
+
+    @Override
+    public synchronized T newInstance() {
+        if (slotInChunk == slotsInChunk) {
+            if (remainingSlots == 0) {
+                throw new IllegalStateException("All slots are already handed out");
+            }
+            slotsInChunk = (int) Math.min(remainingSlots, slotsPerChunk);
+            remainingSlots -= slotsInChunk;
+            chunk = ByteBuffer.allocateDirect(slotsInChunk * alignedSlotSize);
+            slotInChunk = 0;
+        }
+        ByteBuffer region = chunk.duplicate();
+        region.position(slotInChunk * alignedSlotSize).limit(slotInChunk * alignedSlotSize + slotSize);
+        slotInChunk++;
+        return constructor.apply(region.slice());
+    }
+
+}
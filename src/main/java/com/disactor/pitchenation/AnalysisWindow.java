@@ -0,0 +1,91 @@
+package com.disactor.pitchenation;
+
+import be.tarsos.dsp.AudioDispatcher;
+import be.tarsos.dsp.io.TarsosDSPAudioInputStream;
+import be.tarsos.dsp.pitch.PitchDetectionHandler;
+import be.tarsos.dsp.pitch.PitchProcessor;
+import be.tarsos.dsp.pitch.PitchProcessor.PitchEstimationAlgorithm;
+
+/**
+ * Sliding analysis window of the pitch detector: {@code bufferSize} samples are analysed every {@code hopSize}
+ * samples, so consecutive windows overlap by {@code bufferSize - hopSize}. The dispatcher keeps one float
+ * window, shifts the overlap in place and only decodes the new hop, so a shorter hop raises the update rate
+ * without allocating; the detectors then reuse their own work arrays across frames.
+ */
+public final class AnalysisWindow {
+
+    /**
+     * A 1024 sample window every 256 samples, a pitch estimate every 5.8 ms at 44.1 kHz.
+     */
+    public static final AnalysisWindow DEFAULT = new AnalysisWindow(44100, 1024, 256);
+
+    private final float sampleRate;
+    private final int bufferSize;
+    private final int hopSize;
+
+    public AnalysisWindow(float sampleRate, int bufferSize, int hopSize) {
+        if (!(sampleRate > 0) || bufferSize <= 0 || hopSize <= 0 || hopSize > bufferSize) {
+            throw new IllegalArgumentException("Invalid analysis window: " + sampleRate + "/" + bufferSize + "/" + hopSize);
+        }
+        this.sampleRate = sampleRate;
+        this.bufferSize = bufferSize;
+        this.hopSize = hopSize;
+    }
+
+    /**
+     * @param window {@code sampleRate/bufferSize/hopSize}, e.g. {@code 44100/2048/220}
+     */
+    public static AnalysisWindow parse(String window) {
+        String[] parts = window.trim().split("/");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Expected sampleRate/bufferSize/hopSize: " + window);
+        }
+        return new AnalysisWindow(Float.parseFloat(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+    }
+
+    /**
+     * @return the window of the {@code pitchenation.window} system property, {@link #DEFAULT} when unset
+     */
+    public static AnalysisWindow fromSystemProperties() {
+        String window = System.getProperty("pitchenation.window");
+        return window == null ? DEFAULT : parse(window);
+    }
+
+    public AudioDispatcher newDispatcher(TarsosDSPAudioInputStream stream) {
+        return new AudioDispatcher(stream, bufferSize, getOverlap());
+    }
+
+    public PitchProcessor newPitchProcessor(PitchEstimationAlgorithm algorithm, PitchDetectionHandler handler) {
+        return new PitchProcessor(algorithm, sampleRate, bufferSize, handler);
+    }
+
+    public float getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public int getHopSize() {
+        return hopSize;
+    }
+
+    public int getOverlap() {
+        return bufferSize - hopSize;
+    }
+
+    public double getHopMillis() {
+        return hopSize * 1000 / sampleRate;
+    }
+
+    public double getFramesPerSecond() {
+        return sampleRate / hopSize;
+    }
+
+    @Override
+    public String toString() {
+        return Math.round(sampleRate) + "/" + bufferSize + "/" + hopSize;
+    }
+
+}
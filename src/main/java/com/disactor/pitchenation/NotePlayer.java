@@ -0,0 +1,223 @@
+package com.disactor.pitchenation;
+
+import com.disactor.metrics.LatencyHistogram;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Non-blocking note playback through one open {@link SourceDataLine}. The PCM tone of a {@link Pitch} is rendered
+ * once, on first use or in {@link #prepare}, and from then on a note only costs a handoff to the playback thread,
+ * which streams it to the line in small chunks. {@link #play} cuts off whatever sounds or waits and flushes the
+ * line, {@link #enqueue} plays after it or, with 16 notes already waiting, drops the note. Both return at once,
+ * with the {@link System#nanoTime()} by which the note is expected to have finished sounding.
+ * <p>
+ * The time from a request to its first chunk being handed to the line is recorded in {@link #getStartLatency()};
+ * the line buffer adds at most {@link #getLineLatencyNanos()} on top.
+ */
+public class NotePlayer implements AutoCloseable {
+
+    public static final AudioFormat FORMAT = new AudioFormat(44100, 16, 1, true, false);
+
+    private static final int CHUNK_FRAMES = 256;
+    private static final int LINE_FRAMES = 2048;
+    private static final int MAX_QUEUED = 16;
+    private static final double[] HARMONICS = {1, 0.5, 0.25, 0.125};
+
+    private final SourceDataLine line;
+    private final int noteFrames;
+    private final byte[][] rendered = new byte[Pitch.values().length][];
+    private final LatencyHistogram startLatency = new LatencyHistogram();
+    private final LongSupplier clock;
+    private final Thread thread;
+
+    // Guarded by this
+    private final Pitch[] queue = new Pitch[MAX_QUEUED];
+    private final long[] requested = new long[MAX_QUEUED];
+    private int head;
+    private int size;
+    private long cut;
+    private long expectedEndNanos;
+    private boolean closed;
+
+    /**
+     * Opens the default output line.
+     */
+    public NotePlayer(long noteLength, TimeUnit unit) throws LineUnavailableException {
+        this(AudioSystem.getSourceDataLine(FORMAT), noteLength, unit, System::nanoTime);
+    }
+
+    NotePlayer(SourceDataLine line, long noteLength, TimeUnit unit, LongSupplier clock) throws LineUnavailableException {
+        this.line = line;
+        this.clock = clock;
+        this.noteFrames = (int) (unit.toNanos(noteLength) * (long) FORMAT.getFrameRate() / TimeUnit.SECONDS.toNanos(1));
+        line.open(FORMAT, LINE_FRAMES * FORMAT.getFrameSize());
+        line.start();
+        thread = new Thread(this::run, "Note playback");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Renders the notes ahead of their first use.
+     */
+    public void prepare(Pitch... pitches) {
+        for (Pitch pitch : pitches) {
+            render(pitch);
+        }
+    }
+
+    /**
+     * Cuts off the current and queued notes and plays this one instead.
+     *
+     * @return {@link System#nanoTime()} by which the note will have finished sounding
+     */
+    public long play(Pitch pitch) {
+        render(pitch);
+        synchronized (this) {
+            cut++;
+            size = 0;
+            expectedEndNanos = 0;
+            return offer(pitch);
+        }
+    }
+
+    /**
+     * Plays the note after the current and queued ones, drops it if the queue is full.
+     *
+     * @return {@link System#nanoTime()} by which the note, or the queued ones if it was dropped, will have finished
+     * sounding
+     */
+    public long enqueue(Pitch pitch) {
+        render(pitch);
+        synchronized (this) {
+            if (size == MAX_QUEUED) {
+                return expectedEndNanos;
+            }
+            return offer(pitch);
+        }
+    }
+
+    private long offer(Pitch pitch) {
+        long now = clock.getAsLong();
+        int tail = (head + size++) % MAX_QUEUED;
+        queue[tail] = pitch;
+        requested[tail] = now;
+        expectedEndNanos = Math.max(expectedEndNanos, now + getLineLatencyNanos()) + noteNanos();
+        notifyAll();
+        return expectedEndNanos;
+    }
+
+    private byte[] render(Pitch pitch) {
+        byte[] pcm = rendered[pitch.ordinal()];
+        if (pcm == null) {
+            pcm = new byte[noteFrames * 2];
+            double rate = FORMAT.getFrameRate();
+            double norm = 0;
+            for (double harmonic : HARMONICS) {
+                norm += harmonic;
+            }
+            int attack = (int) (rate / 200);
+            int release = (int) (rate / 100);
+            for (int i = 0; i < noteFrames; i++) {
+                double t = i / rate;
+                double sample = 0;
+                for (int h = 0; h < HARMONICS.length; h++) {
+                    sample += HARMONICS[h] * Math.sin(2 * Math.PI * (h + 1) * pitch.getPitch() * t);
+                }
+                double envelope = Math.exp(-3.0 * i / noteFrames)
+                        * Math.min(1, (double) i / attack)
+                        * Math.min(1, (double) (noteFrames - i) / release);
+                short value = (short) (sample / norm * envelope * 0.5 * Short.MAX_VALUE);
+                pcm[2 * i] = (byte) value;
+                pcm[2 * i + 1] = (byte) (value >> 8);
+            }
+            rendered[pitch.ordinal()] = pcm; // a racing render of the same pitch writes the same bytes
+        }
+        return pcm;
+    }
+
+    private void run() {
+        int chunk = CHUNK_FRAMES * FORMAT.getFrameSize();
+        long playing = -1;
+        while (true) {
+            Pitch pitch;
+            long requestedNanos;
+            long generation;
+            synchronized (this) {
+                while (size == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return;
+                }
+                pitch = queue[head];
+                requestedNanos = requested[head];
+                head = (head + 1) % MAX_QUEUED;
+                size--;
+                generation = cut;
+            }
+            if (playing != generation) {
+                line.flush(); // drop what is left of a cut off note
+                playing = generation;
+            }
+            byte[] pcm = rendered[pitch.ordinal()];
+            for (int offset = 0; offset < pcm.length; offset += chunk) {
+                line.write(pcm, offset, Math.min(chunk, pcm.length - offset));
+                if (offset == 0) {
+                    startLatency.record(clock.getAsLong() - requestedNanos);
+                }
+                if (isCut(generation)) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private synchronized boolean isCut(long generation) {
+        return cut != generation || closed;
+    }
+
+    /**
+     * @return whether a note is expected to be waiting, streamed or still sounding from the line buffer
+     */
+    public synchronized boolean isPlaying() {
+        return clock.getAsLong() < expectedEndNanos;
+    }
+
+    public LatencyHistogram.Snapshot getStartLatency() {
+        return startLatency.snapshot();
+    }
+
+    public long getLineLatencyNanos() {
+        return (long) (line.getBufferSize() / FORMAT.getFrameSize() * 1e9 / FORMAT.getFrameRate());
+    }
+
+    private long noteNanos() {
+        return (long) (noteFrames * 1e9 / FORMAT.getFrameRate());
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        line.stop();
+        line.close();
+    }
+
+}
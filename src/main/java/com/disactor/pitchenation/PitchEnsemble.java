@@ -0,0 +1,146 @@
+package com.disactor.pitchenation;
+
+import be.tarsos.dsp.pitch.PitchDetector;
+import be.tarsos.dsp.pitch.PitchProcessor.PitchEstimationAlgorithm;
+import com.disactor.Actor;
+
+/**
+ * Runs several pitch detectors on the same window at once and combines them with a probability weighted vote.
+ * Each detector is one actor of the detection stage of the {@link PitchPipeline}, so each runs on its own
+ * thread; the vote runs in the matching stage. Estimates vote for their nearest semitone with their probability,
+ * or {@link #UNRATED_WEIGHT} for detectors that do not rate them; the semitone with the most weight wins if at
+ * least {@code minVotes} detectors agree, its pitch is the weighted geometric mean of the agreeing estimates.
+ * <p>
+ * Switching algorithms only changes which detectors take part, audio capture keeps running. The producer
+ * stamps the current choice into each frame with {@link PitchEvent#setAlgorithms}, so the detectors and the
+ * vote of one window always agree on it.
+ */
+public class PitchEnsemble {
+
+    /**
+     * Every detector with an implementation, FFT_PITCH is a stub that never reports a pitch.
+     */
+    public static final PitchEstimationAlgorithm[] ALGORITHMS = {
+            PitchEstimationAlgorithm.YIN,
+            PitchEstimationAlgorithm.MPM,
+            PitchEstimationAlgorithm.FFT_YIN,
+            PitchEstimationAlgorithm.DYNAMIC_WAVELET,
+            PitchEstimationAlgorithm.AMDF
+    };
+    public static final float UNRATED_WEIGHT = 0.5f;
+
+    private final int minVotes;
+    private final Actor<PitchEvent>[] detectors;
+    private volatile long enabled;
+    // Only touched by the matching stage
+    private final double[] semitones = new double[PitchEstimationAlgorithm.values().length];
+
+    /**
+     * @param minVotes detectors that must agree on the semitone, lowered to the number of enabled detectors
+     */
+    public PitchEnsemble(AnalysisWindow window, int minVotes) {
+        this.minVotes = minVotes;
+        @SuppressWarnings("unchecked")
+        Actor<PitchEvent>[] detectors = (Actor<PitchEvent>[]) new Actor<?>[ALGORITHMS.length];
+        this.detectors = detectors;
+        for (int i = 0; i < ALGORITHMS.length; i++) {
+            detectors[i] = detector(ALGORITHMS[i], ALGORITHMS[i].getDetector(window.getSampleRate(), window.getBufferSize()));
+        }
+        setAlgorithms(ALGORITHMS);
+    }
+
+    private Actor<PitchEvent> detector(PitchEstimationAlgorithm algorithm, PitchDetector detector) {
+        long bit = 1L << algorithm.ordinal();
+        return event -> {
+            if (event.getKind() != PitchEvent.Kind.FRAME) {
+                return;
+            }
+            if ((event.getAlgorithms() & bit) != 0) {
+                event.setEstimate(algorithm, detector.getPitch(event.getSamples()));
+            } else {
+                event.clearEstimate(algorithm);
+            }
+        };
+    }
+
+    /**
+     * @return one actor per detector, to run as one stage
+     */
+    public Actor<PitchEvent>[] getDetectors() {
+        return detectors.clone();
+    }
+
+    /**
+     * Takes effect from the next window on, a single algorithm is passed through without cross-checking.
+     */
+    public void setAlgorithms(PitchEstimationAlgorithm... algorithms) {
+        long mask = 0;
+        for (PitchEstimationAlgorithm algorithm : algorithms) {
+            mask |= 1L << algorithm.ordinal();
+        }
+        enabled = mask;
+    }
+
+    /**
+     * @return the enabled algorithms as a bit mask of their ordinals, for the producer to stamp into each frame
+     */
+    public long getAlgorithms() {
+        return enabled;
+    }
+
+    /**
+     * Sets the consensus of the event's estimates, must run after the detectors.
+     *
+     * @return whether enough detectors agreed
+     */
+    public boolean vote(PitchEvent event) {
+        return vote(event, event.getAlgorithms(), minVotes, semitones);
+    }
+
+    static boolean vote(PitchEvent event, long enabled, int minVotes, double[] semitones) {
+        int candidates = 0;
+        for (PitchEstimationAlgorithm algorithm : ALGORITHMS) {
+            float pitch = event.getPitch(algorithm);
+            if ((enabled & 1L << algorithm.ordinal()) != 0) {
+                candidates++;
+                semitones[algorithm.ordinal()] = pitch > 0 ? Math.round(PitchIndex.semitone(pitch)) : Double.NaN;
+            }
+        }
+        int quorum = Math.max(1, Math.min(minVotes, candidates));
+
+        float bestWeight = 0;
+        double bestPitch = -1;
+        for (PitchEstimationAlgorithm candidate : ALGORITHMS) {
+            double semitone = semitones[candidate.ordinal()];
+            if ((enabled & 1L << candidate.ordinal()) == 0 || Double.isNaN(semitone)) {
+                continue;
+            }
+            int votes = 0;
+            float weight = 0;
+            double logSum = 0;
+            for (PitchEstimationAlgorithm voter : ALGORITHMS) {
+                if ((enabled & 1L << voter.ordinal()) != 0 && semitones[voter.ordinal()] == semitone) {
+                    float voterWeight = weight(event.getProbability(voter));
+                    votes++;
+                    weight += voterWeight;
+                    logSum += voterWeight * Math.log(event.getPitch(voter));
+                }
+            }
+            if (votes >= quorum && weight > bestWeight) {
+                bestWeight = weight;
+                bestPitch = Math.exp(logSum / weight);
+            }
+        }
+
+        event.setConsensus(bestWeight > 0 ? (float) bestPitch : -1, candidates > 0 ? bestWeight / candidates : 0);
+        return bestWeight > 0;
+    }
+
+    private static float weight(float probability) {
+        if (probability < 0) {
+            return UNRATED_WEIGHT;
+        }
+        return Math.max(Math.min(probability, 1), Float.MIN_NORMAL);
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.disactor.pitchenation;
+
+import be.tarsos.dsp.pitch.PitchDetectionResult;
+import be.tarsos.dsp.pitch.PitchProcessor.PitchEstimationAlgorithm;
+import com.disactor.Event;
+import com.disactor.Trace;
+
+/**
+ * One slot of the {@link PitchPipeline}, filled in stage by stage: the captured window, the estimate of every
+ * detector by algorithm ordinal (-1 when a detector found no pitch or did not run), the matched pitch and the
+ * cues the game wants performed. Control events carry no samples.
+ */
+public class PitchEvent implements Event<PitchEvent> {
+
+    public enum Kind {
+        FRAME, GREETING, START, STOP
+    }
+
+    private static final int ALGORITHMS = PitchEstimationAlgorithm.values().length;
+    private static final int MAX_CUES = 8;
+
+    private final Trace trace = new Trace(0);
+    private Kind kind = Kind.FRAME;
+    private final float[] samples;
+    private float rms;
+    private long algorithms;
+    private final float[] pitches = new float[ALGORITHMS];
+    private final float[] probabilities = new float[ALGORITHMS];
+    private float pitch = -1;
+    private float probability;
+    private Pitch guess;
+    private double cents;
+    private final Cue[] cues = new Cue[MAX_CUES];
+    private int cueCount;
+    private long cueTicket;
+
+    /**
+     * Something for the UI/playback stage to do, performed in order.
+     */
+    public static final class Cue {
+
+        public enum Type {
+            /**
+             * Show a new riddle and clear the guess.
+             */
+            RIDDLE,
+            /**
+             * Show the guessed pitch and how far the sung frequency is off.
+             */
+            GUESS,
+            /**
+             * Show the pitch in place of the solved riddle.
+             */
+            SOLVED,
+            PLAY
+        }
+
+        private Type type;
+        private Pitch pitch;
+        private float frequency;
+
+        public Type getType() {
+            return type;
+        }
+
+        public Pitch getPitch() {
+            return pitch;
+        }
+
+        public float getFrequency() {
+            return frequency;
+        }
+    }
+
+    public PitchEvent(int bufferSize) {
+        this.samples = new float[bufferSize];
+        for (int i = 0; i < MAX_CUES; i++) {
+            cues[i] = new Cue();
+        }
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public void setKind(Kind kind) {
+        this.kind = kind;
+    }
+
+    public float[] getSamples() {
+        return samples;
+    }
+
+    public void setSamples(float[] from) {
+        System.arraycopy(from, 0, samples, 0, samples.length);
+    }
+
+    public float getRms() {
+        return rms;
+    }
+
+    public void setRms(float rms) {
+        this.rms = rms;
+    }
+
+    /**
+     * @return the detectors to run on this window, a bit mask of algorithm ordinals
+     */
+    public long getAlgorithms() {
+        return algorithms;
+    }
+
+    public void setAlgorithms(long algorithms) {
+        this.algorithms = algorithms;
+    }
+
+    public float getPitch(PitchEstimationAlgorithm algorithm) {
+        return pitches[algorithm.ordinal()];
+    }
+
+    /**
+     * @return the detector's confidence in [0, 1], -1 for detectors that do not rate their estimates
+     */
+    public float getProbability(PitchEstimationAlgorithm algorithm) {
+        return probabilities[algorithm.ordinal()];
+    }
+
+    public void setEstimate(PitchEstimationAlgorithm algorithm, PitchDetectionResult result) {
+        pitches[algorithm.ordinal()] = result.isPitched() ? result.getPitch() : -1;
+        probabilities[algorithm.ordinal()] = result.getProbability();
+    }
+
+    public void clearEstimate(PitchEstimationAlgorithm algorithm) {
+        pitches[algorithm.ordinal()] = -1;
+        probabilities[algorithm.ordinal()] = 0;
+    }
+
+    /**
+     * @return the consensus frequency of the detectors, -1 without one
+     */
+    public float getPitch() {
+        return pitch;
+    }
+
+    public float getProbability() {
+        return probability;
+    }
+
+    public void setConsensus(float pitch, float probability) {
+        this.pitch = pitch;
+        this.probability = probability;
+    }
+
+    /**
+     * @return the pitch nearest to the consensus, null without one
+     */
+    public Pitch getGuess() {
+        return guess;
+    }
+
+    public double getCents() {
+        return cents;
+    }
+
+    public void setGuess(Pitch guess, double cents) {
+        this.guess = guess;
+        this.cents = cents;
+    }
+
+    public int getCueCount() {
+        return cueCount;
+    }
+
+    public Cue getCue(int index) {
+        return cues[index];
+    }
+
+    public void cue(Cue.Type type, Pitch pitch) {
+        if (cueCount == MAX_CUES) {
+            throw new IllegalStateException("More than " + MAX_CUES + " cues");
+        }
+        Cue cue = cues[cueCount++];
+        cue.type = type;
+        cue.pitch = pitch;
+        cue.frequency = this.pitch;
+    }
+
+    public void clearCues() {
+        cueCount = 0;
+        cueTicket = 0;
+    }
+
+    /**
+     * @return the game's number for these cues when they include playback, 0 otherwise
+     */
+    public long getCueTicket() {
+        return cueTicket;
+    }
+
+    public void setCueTicket(long cueTicket) {
+        this.cueTicket = cueTicket;
+    }
+
+    @Override
+    public Trace getTrace() {
+        return trace;
+    }
+
+    /**
+     * Copies what the producer fills in, later stages overwrite the rest.
+     */
+    @Override
+    public void copyFrom(PitchEvent from) {
+        trace.copyFrom(from.trace);
+        kind = from.kind;
+        if (kind == Kind.FRAME) {
+            System.arraycopy(from.samples, 0, samples, 0, samples.length);
+        }
+        rms = from.rms;
+        algorithms = from.algorithms;
+        pitch = -1;
+        probability = 0;
+        guess = null;
+        cents = 0;
+        cueCount = 0;
+        cueTicket = 0;
+    }
+
+}
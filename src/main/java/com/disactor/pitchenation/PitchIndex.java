@@ -0,0 +1,59 @@
+package com.disactor.pitchenation;
+
+/**
+ * Constant time, allocation free frequency to {@link Pitch} lookup. The semitone is computed directly as
+ * {@code 12 * log2(f / f(Do0))} and rounded, so every frequency within half a semitone (50 cents) of a pitch
+ * maps to it, the same relative tolerance in every octave.
+ */
+public final class PitchIndex {
+
+    private static final Pitch[] PITCHES = Pitch.values();
+    private static final double LOWEST = PITCHES[0].getPitch();
+    private static final double SEMITONES_PER_LN = 12 / Math.log(2);
+
+    private PitchIndex() {
+    }
+
+    /**
+     * @return the nearest pitch, null for no frequency or one more than half a semitone outside Do0..Si8
+     */
+    public static Pitch nearest(double frequency) {
+        if (!(frequency > 0)) {
+            return null;
+        }
+        long semitone = Math.round(semitone(frequency));
+        return semitone >= 0 && semitone < PITCHES.length ? PITCHES[(int) semitone] : null;
+    }
+
+    /**
+     * @return fractional number of semitones above Do0, the ordinal of the nearest pitch when rounded
+     */
+    public static double semitone(double frequency) {
+        return Math.log(frequency / LOWEST) * SEMITONES_PER_LN;
+    }
+
+    /**
+     * @return deviation of the frequency from the pitch in cents, negative when flat, within +-50 for
+     * {@link #nearest(double)}
+     */
+    public static double cents(double frequency, Pitch pitch) {
+        return Math.log(frequency / pitch.getPitch()) * SEMITONES_PER_LN * 100;
+    }
+
+    /**
+     * @return the pitch a semitone below, null below Do0
+     */
+    public static Pitch flat(Pitch pitch) {
+        int ordinal = pitch.ordinal();
+        return ordinal > 0 ? PITCHES[ordinal - 1] : null;
+    }
+
+    /**
+     * @return the pitch a semitone above, null above Si8
+     */
+    public static Pitch sharp(Pitch pitch) {
+        int ordinal = pitch.ordinal();
+        return ordinal < PITCHES.length - 1 ? PITCHES[ordinal + 1] : null;
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.disactor.pitchenation;
+
+import be.tarsos.dsp.AudioDispatcher;
+import be.tarsos.dsp.AudioEvent;
+import be.tarsos.dsp.AudioProcessor;
+import com.disactor.Actor;
+import com.disactor.Disactor;
+import com.disactor.metrics.DisactorMetrics;
+import com.lmax.disruptor.IgnoreExceptionHandler;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The pitch game as one {@link Disactor} over preallocated {@link PitchEvent} slots:
+ * <ol>
+ * <li>capture: the audio dispatcher thread copies each window into a free slot, or drops it when the ring is
+ * full, counted as rejected in {@link #getMetrics()}</li>
+ * <li>detection: the {@link PitchEnsemble} detectors, in parallel</li>
+ * <li>matching: the ensemble vote and the nearest {@link Pitch}</li>
+ * <li>game logic: decides on the cues, sole owner of the game state</li>
+ * <li>UI/playback: performs the cues, it may block without ever stalling capture</li>
+ * </ol>
+ * Control events from other threads go through the same ring, so the game sees them in order with the audio.
+ * They are handed to a control thread that waits for a free slot, so the caller, typically the Swing event
+ * thread, never blocks on a full ring.
+ */
+public class PitchPipeline implements AudioProcessor {
+
+    private final Disactor<PitchEvent> disactor;
+    private final PitchEnsemble ensemble;
+    private final PitchEvent frame;
+    private final PitchEvent control = new PitchEvent(0);
+    private final ExecutorService controls = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = DaemonThreadFactory.INSTANCE.newThread(runnable);
+        thread.setName("Pitch control");
+        return thread;
+    });
+    private AudioDispatcher dispatcher;
+
+    public PitchPipeline(AnalysisWindow window, PitchEnsemble ensemble, Actor<PitchEvent> game, Actor<PitchEvent> output) {
+        this.ensemble = ensemble;
+        this.frame = new PitchEvent(window.getBufferSize());
+        this.disactor = Disactor.<PitchEvent>builder()
+                .eventFactory(() -> new PitchEvent(window.getBufferSize()))
+                .bufferSize(16)
+                .exceptionHandler(new IgnoreExceptionHandler())
+                .stage(ensemble.getDetectors())
+                .actor(event -> match(ensemble, event))
+                .actor(game)
+                .actor(output)
+                .build();
+    }
+
+    private static void match(PitchEnsemble ensemble, PitchEvent event) {
+        if (event.getKind() == PitchEvent.Kind.FRAME && ensemble.vote(event)) {
+            Pitch guess = PitchIndex.nearest(event.getPitch());
+            event.setGuess(guess, guess != null ? PitchIndex.cents(event.getPitch(), guess) : 0);
+        }
+    }
+
+    public void start() {
+        disactor.start();
+    }
+
+    public synchronized void stop() {
+        if (dispatcher != null) {
+            dispatcher.stop();
+            dispatcher = null;
+        }
+        controls.shutdownNow();
+        disactor.stop();
+    }
+
+    /**
+     * Stops the current capture and runs the dispatcher, with this pipeline added, on its own thread.
+     */
+    public synchronized void capture(AudioDispatcher dispatcher) {
+        if (this.dispatcher != null) {
+            this.dispatcher.stop();
+        }
+        this.dispatcher = dispatcher;
+        dispatcher.addAudioProcessor(this);
+        Thread thread = DaemonThreadFactory.INSTANCE.newThread(dispatcher);
+        thread.setName("Audio capture");
+        thread.start();
+    }
+
+    /**
+     * Sends a control event to the game without waiting: the control thread publishes it, in call order,
+     * once a slot is free.
+     */
+    public void control(PitchEvent.Kind kind) {
+        controls.execute(() -> {
+            control.setKind(kind);
+            disactor.onEvent(control);
+        });
+    }
+
+    @Override
+    public boolean process(AudioEvent audioEvent) {
+        float[] buffer = audioEvent.getFloatBuffer();
+        if (buffer.length == frame.getSamples().length) { // the last window of a stream may be shorter
+            frame.setSamples(buffer);
+            frame.setRms((float) audioEvent.getRMS());
+            frame.setAlgorithms(ensemble.getAlgorithms());
+            disactor.tryOnEvent(frame);
+        }
+        return true;
+    }
+
+    @Override
+    public void processingFinished() {
+    }
+
+    public Disactor<PitchEvent> getDisactor() {
+        return disactor;
+    }
+
+    public DisactorMetrics getMetrics() {
+        return disactor.getMetrics();
+    }
+
+}
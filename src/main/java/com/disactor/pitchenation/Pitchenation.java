@@ -1,37 +1,25 @@
 package com.disactor.pitchenation;
 
-import be.tarsos.dsp.AudioDispatcher;
-import be.tarsos.dsp.AudioEvent;
 import be.tarsos.dsp.io.jvm.JVMAudioInputStream;
-import be.tarsos.dsp.pitch.PitchDetectionHandler;
-import be.tarsos.dsp.pitch.PitchDetectionResult;
-import be.tarsos.dsp.pitch.PitchProcessor;
 import be.tarsos.dsp.pitch.PitchProcessor.PitchEstimationAlgorithm;
+import com.disactor.metrics.DisactorMetrics;
 import com.google.common.collect.ImmutableMap;
-import org.jfugue.player.Player;
 
 import javax.sound.sampled.*;
 import javax.swing.*;
+import javax.swing.Timer;
 import javax.swing.border.TitledBorder;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.lang.reflect.InvocationTargetException;
-import java.util.List;
 import java.util.*;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.concurrent.TimeUnit;
 
 
-public class Pitchenation extends JFrame implements PitchDetectionHandler {
-
-    private static final String[] scale = new String[]{"C", "C#", "D", "D#", "E", "F", "F#", "G", "G#", "A", "A#", "B"};
-    private static final int[] octaves = new int[]{3, 4, 5, 6, 7};
+public class Pitchenation extends JFrame {
 
 //    Do0("Do0", "C0", 16.35),
 //    Si0("Si0", "B0", 30.87),
@@ -74,11 +62,7 @@ public class Pitchenation extends JFrame implements PitchDetectionHandler {
             .put("Si", new Color(127, 0, 255)) //    Violet: 380-450 nm (688-789 THz frequency)
             .build();
 
-    private static final Map<String, Pitch> pitchByNote = Stream.of(Pitch.values())
-            .collect(Collectors.toMap(Pitch::getNote, pitch -> pitch));
-    private static final Map<Integer, Pitch> pitchByOrdinal = Stream.of(Pitch.values())
-            .collect(Collectors.toMap(Pitch::ordinal, pitch -> pitch));
-    private static final PitchEstimationAlgorithm defaultPitchAlgo = PitchEstimationAlgorithm.MPM;
+    private static final String ensembleAlgo = "ENSEMBLE";
     private static final Pitch playOnSuccess = Pitch.Do4;
 
     private final JPanel riddlePanel;
@@ -87,96 +71,110 @@ public class Pitchenation extends JFrame implements PitchDetectionHandler {
     private final JLabel riddleLabel;
     private final JPanel chromaPanel;
 
-    private final Queue<Pitch> riddleQueue = new ArrayBlockingQueue<>(scale.length);
-    private final AtomicReference<Pitch> riddle = new AtomicReference<>(null);
-    private final AtomicReference<Pitch> guess = new AtomicReference<>(null);
-    private final Player player = new Player();
-    private final Random random = new Random();
-    private final Executor executor = Executors.newSingleThreadExecutor();
-    private final AtomicBoolean isRunning = new AtomicBoolean(false);
-    private volatile AudioDispatcher dispatcher;
+    private final NotePlayer notes = openNotePlayer(); // null without an audio output
+    private final AnalysisWindow window = AnalysisWindow.fromSystemProperties();
+    private final PitchEnsemble ensemble = new PitchEnsemble(window, 2);
+    private final RiddleGame game = new RiddleGame(playOnSuccess, new Random());
+    private final PitchPipeline pipeline = new PitchPipeline(window, ensemble, game, this::perform);
     private volatile Mixer currentMixer;
-    private volatile PitchEstimationAlgorithm algo = defaultPitchAlgo;
-
-    private void play(float pitch, float probability, double rms, Pitch guess) {
-        if (isRunning.get()) {
-            while (this.riddle.get() == null) {
-                if (riddleQueue.size() == 0) {
-                    List<Pitch> riddles = Arrays.stream(scale)
-                            .map(letter -> letter + (random.nextInt(octaves.length - octaves[0]) + octaves[0]))
-                            .map(pitchByNote::get)
-                            .collect(Collectors.toList());
-                    Collections.shuffle(riddles);
-                    out(" " + riddles + " are the next riddles");
-                    riddleQueue.addAll(riddles);
-                }
-                Pitch riddle = riddleQueue.poll();
-                if (riddle != null) {
-                    out(" [" + riddle.getEchroma() + "] is the new riddle");
-                    this.riddle.set(riddle);
-                    SwingUtilities.invokeLater(() -> {
-                        Color riddleColor = chromaToColor.get(riddle.getChroma());
-                        riddleLabel.setText(" " + riddle.getChroma() + " ");
-                        riddlePanel.setBackground(riddleColor);
-                        guessLabel.setText("    ");
-                        guessPanel.setBackground(null);
-                        guessLabel.setVisible(false);
-                        chromaPanel.setBackground(null);
-                        chromaPanel.setBorder(null);
-                    });
-                    player.play(riddle.getNote());
-                }
-            }
+    private volatile int cuts; // Only incremented by the UI/playback stage
+    private boolean running; // Only touched on the event dispatch thread
+
+    private static NotePlayer openNotePlayer() {
+        try {
+            NotePlayer notes = new NotePlayer(600, TimeUnit.MILLISECONDS);
+            notes.prepare(playOnSuccess);
+            return notes;
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            System.out.println("No audio output, playing without the notes: " + e);
+            return null;
         }
+    }
 
-        if (guess != null) {
-            Pitch riddle = this.riddle.get();
-            SwingUtilities.invokeLater(() -> updateGuess(pitch, guess));
-            if (riddle != null) {
-                if (isRunning.get()) {
-                    out(String.format("  [%s] %s  -  [%s] %s [%.2fHz] %.2fHz - %.2f | %.5f", riddle.getChroma(), guess.getChroma(), riddle.getEchroma(), guess.getEchroma(), riddle.getPitch(), pitch, probability, rms));
-                 }
-                if (guess.getChroma().equals(riddle.getChroma()) && isRunning.get()) {
-                    SwingUtilities.invokeLater(() -> riddleLabel.setText(" " + riddle.getChroma() + " "));
-                    this.riddle.set(null);
-                    this.guess.set(null);
-
-                    player.play(riddle.getNote());
-                    SwingUtilities.invokeLater(() -> {
-                        riddleLabel.setText(" " + playOnSuccess.getChroma() + " ");
-                        riddlePanel.setBackground(chromaToColor.get(playOnSuccess.getChroma()));
-                    });
-                    player.play(playOnSuccess.getNote());
-                    play(-1, 0, 0, guess);
-                } else {
-                    if (isRunning.get()) {
-                        player.play(riddle.getNote());
-                    }
+    /**
+     * UI/playback stage: runs the game's cues in order. The first note of an event cuts off what still plays,
+     * the others follow it; none of them blocks. A UI cue shows once the notes cued before it have sounded.
+     */
+    private void perform(PitchEvent event) {
+        boolean first = true;
+        long quietFromNanos = System.nanoTime();
+        try {
+            for (int i = 0; i < event.getCueCount(); i++) {
+                PitchEvent.Cue cue = event.getCue(i);
+                Pitch pitch = cue.getPitch();
+                switch (cue.getType()) {
+                    case RIDDLE:
+                        show(quietFromNanos, () -> {
+                            Color riddleColor = chromaToColor.get(pitch.getChroma());
+                            riddleLabel.setText(" " + pitch.getChroma() + " ");
+                            riddlePanel.setBackground(riddleColor);
+                            guessLabel.setText("    ");
+                            guessPanel.setBackground(null);
+                            guessLabel.setVisible(false);
+                            chromaPanel.setBackground(null);
+                            chromaPanel.setBorder(null);
+                        });
+                        break;
+                    case GUESS:
+                        float frequency = cue.getFrequency();
+                        show(quietFromNanos, () -> updateGuess(frequency, pitch));
+                        break;
+                    case SOLVED:
+                        show(quietFromNanos, () -> {
+                            riddleLabel.setText(" " + pitch.getChroma() + " ");
+                            riddlePanel.setBackground(chromaToColor.get(pitch.getChroma()));
+                        });
+                        break;
+                    case PLAY:
+                        if (notes == null) {
+                            break;
+                        }
+                        if (first) {
+                            cuts++; // the UI cues still waiting for the cut off notes are dropped
+                            quietFromNanos = notes.play(pitch);
+                        } else {
+                            quietFromNanos = notes.enqueue(pitch);
+                        }
+                        first = false;
+                        break;
                 }
             }
+        } finally { // the game waits for every cued event, even one whose cues failed
+            game.performed(event, quietFromNanos);
+        }
+    }
+
+    /**
+     * Runs the update on the event dispatch thread at the given {@link System#nanoTime()}, unless a note cuts off
+     * the ones it waits for.
+     */
+    private void show(long atNanos, Runnable update) {
+        long delayMillis = TimeUnit.NANOSECONDS.toMillis(atNanos - System.nanoTime());
+        if (delayMillis <= 0) {
+            SwingUtilities.invokeLater(update);
+            return;
         }
+        int cut = cuts;
+        Timer timer = new Timer((int) delayMillis, event -> {
+            if (cut == cuts) {
+                update.run();
+            }
+        });
+        timer.setRepeats(false);
+        timer.start();
     }
 
     private void updateGuess(float pitch, Pitch guess) {
-        double diff = pitch - guess.getPitch();
+        double cents = PitchIndex.cents(pitch, guess);
         guessLabel.setVisible(true);
         guessLabel.setText(" " + guess.getChroma() + " ");
 
-        Pitch flat = pitchByOrdinal.get(guess.ordinal() - 1);
-        Pitch sharp = pitchByOrdinal.get(guess.ordinal() + 1);
-        if (flat != null && sharp != null) { // Can be null when out of range, this could have been done better, but meh
-            Pitch pitchy;
-            if (diff < 0) {
-                pitchy = flat;
-            } else {
-                pitchy = sharp;
-            }
+        Pitch pitchy = cents < 0 ? PitchIndex.flat(guess) : PitchIndex.sharp(guess);
+        if (pitchy != null) { // null at the ends of the range
             Color pitchyColor = chromaToColor.get(pitchy.getChroma());
-            double pitchyDiff = Math.abs(guess.getPitch() - pitchy.getPitch());
-            double ratio = Math.abs(diff) / pitchyDiff;
-            int width = (int) (ratio * 50) + 1;
-              if (!isRunning.get()) {
-                out(String.format(" %s | pitch=%.2fHz | diff=%.2f | pitchy=%.2f | ratio=%.2f | width=%s", guess.getEchroma(), pitch, diff, pitchyDiff, ratio, width));
+            double ratio = Math.abs(cents) / 100;
+            if (!running) {
+                out(String.format(" %s | pitch=%.2fHz | cents=%+.1f | pitchy=%s | ratio=%.2f", guess.getEchroma(), pitch, cents, pitchy.getEchroma(), ratio));
             }
             Color chromaColor = chromaToColor.get(guess.getChroma());
             chromaPanel.setBackground(chromaColor);
@@ -198,24 +196,6 @@ public class Pitchenation extends JFrame implements PitchDetectionHandler {
         return new Color(red, green, blue);
     }
 
-    private Pitch matchPitch(float pitch) {
-        Pitch guess = null;
-        for (Pitch aPitch : Pitch.values()) {
-            double diff = Math.abs(aPitch.getPitch() - pitch);
-            if (diff < 5) {
-//                out("         diff: " + aPitch.getPitch() + "-" + pitch + "=" + diff);
-                if (guess != null) {
-                    if (Math.abs(guess.getPitch() - pitch) < diff) {
-                        aPitch = guess;
-//                        out("         better diff: " + aPitch.getPitch() + "-" + pitch + "=" + diff);
-                    }
-                }
-                guess = aPitch;
-            }
-        }
-        return guess;
-    }
-
     public static void main(String... strings) throws InterruptedException, InvocationTargetException {
         SwingUtilities.invokeAndWait(() -> {
             UIManager.put("control", new Color(128, 128, 128));
@@ -246,29 +226,18 @@ public class Pitchenation extends JFrame implements PitchDetectionHandler {
         });
     }
 
-    @Override
-    public void handlePitch(PitchDetectionResult pitchDetectionResult, AudioEvent audioEvent) {
-        try {
-            if (pitchDetectionResult.getPitch() != -1) {
-                float pitch = pitchDetectionResult.getPitch();
-                float probability = pitchDetectionResult.getProbability();
-                double rms = audioEvent.getRMS() * 100;
-                Pitch guess = matchPitch(pitch);
-//            String guessEhroma = guess == null ? "" : guess.getEhroma();
-//            String message = String.format("    %s %.2fHz - %.2f | %.5f", guessChroma, pitch, probability, rms);
-//            out(message);
-                if (guess != null) {
-                    play(pitch, probability, rms, guess);
-                }
-            }
-        } catch (RuntimeException e) {
-            e.printStackTrace();
-        }
-    }
-
     public Pitchenation() {
         setLayout(new GridLayout(6, 1));
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) { // before the exit
+                pipeline.stop();
+                if (notes != null) {
+                    notes.close();
+                }
+            }
+        });
         setTitle("Pitchenation");
 
         JPanel controlPanel = new JPanel();
@@ -297,13 +266,13 @@ public class Pitchenation extends JFrame implements PitchDetectionHandler {
             }
         });
 
+        pipeline.start();
         JPanel pitchAlgoPanel = new PitchAlgoPanel(event -> {
             String name = event.getActionCommand();
-            algo = PitchEstimationAlgorithm.valueOf(name);
-            try {
-                setNewMixer(currentMixer);
-            } catch (LineUnavailableException e) {
-                e.printStackTrace();
+            if (ensembleAlgo.equals(name)) {
+                ensemble.setAlgorithms(PitchEnsemble.ALGORITHMS);
+            } else {
+                ensemble.setAlgorithms(PitchEstimationAlgorithm.valueOf(name));
             }
         });
         add(pitchAlgoPanel);
@@ -359,75 +328,54 @@ public class Pitchenation extends JFrame implements PitchDetectionHandler {
         setLocation(screen.width - getSize().width - 15, screen.height / 2 - getSize().height / 2);
         setVisible(true);
 
-        executor.execute(() -> {
-            player.play(playOnSuccess.getNote());
-            if (isRunning.get()) {
-                play(-1, 0, 0, null);
-            }
-
-            for (Mixer.Info info : Shared.getMixerInfo(false, true)) {
-                if (info.toString().contains("Default")) {
-                    Mixer newValue = AudioSystem.getMixer(info);
-                    try {
-                        setNewMixer(newValue);
-                    } catch (LineUnavailableException e) {
-                        e.printStackTrace();
-                    }
-                    break;
+        pipeline.control(PitchEvent.Kind.GREETING);
+        for (Mixer.Info info : Shared.getMixerInfo(false, true)) {
+            if (info.toString().contains("Default")) {
+                Mixer newValue = AudioSystem.getMixer(info);
+                try {
+                    setNewMixer(newValue);
+                } catch (LineUnavailableException e) {
+                    e.printStackTrace();
                 }
+                break;
             }
-        });
+        }
     }
 
     private void updateStartStopButton(JButton startStopButton) {
-        out("\nisRunning=" + isRunning.get());
-        boolean updated = isRunning.compareAndSet(false, true);
-        out("updatedToTrue=" + updated);
-        if (updated) {
-            Pitchenation.this.riddle.set(null);
-            executor.execute(() -> play(-1, 0, 0, null));
-            startStopButton.setText("Stop");
+        running = !running;
+        if (running) {
+            pipeline.control(PitchEvent.Kind.START);
         } else {
-            updated = isRunning.compareAndSet(true, false);
-            out("updatedToFalse=" + updated);
-            if (updated) {
-                riddlePanel.setBackground(null);
-                riddleLabel.setText("");
-            } else {
-                out("Weird - should not happen");
+            pipeline.control(PitchEvent.Kind.STOP);
+            riddlePanel.setBackground(null);
+            riddleLabel.setText("");
+            DisactorMetrics metrics = pipeline.getMetrics();
+            out(String.format("%d frames published, %d dropped while busy", metrics.getPublishedCount(), metrics.getRejectedCount()));
+            if (notes != null) {
+                out("Note start latency: " + notes.getStartLatency());
             }
         }
-        if (updated) {
-            startStopButton.setText(isRunning.get() ? "Stop" : "Start");
-        }
-        out("isRunning=" + isRunning.get());
+        startStopButton.setText(running ? "Stop" : "Start");
+        out("isRunning=" + running);
     }
 
     private void setNewMixer(Mixer mixer) throws LineUnavailableException {
-        if (dispatcher != null) {
-            dispatcher.stop();
-        }
         currentMixer = mixer;
 
-        float sampleRate = 44100;
-        int bufferSize = 1024;
-        int overlap = 0;
-
-        out("Started listening with " + Shared.toLocalString(mixer.getMixerInfo().getName()) + "\n");
+        out("Started listening with " + Shared.toLocalString(mixer.getMixerInfo().getName()) + String.format(
+                " every %.1fms (%s)%n", window.getHopMillis(), window));
 
-        final AudioFormat format = new AudioFormat(sampleRate, 16, 1, true, true);
+        final AudioFormat format = new AudioFormat(window.getSampleRate(), 16, 1, true, true);
         final DataLine.Info dataLineInfo = new DataLine.Info(TargetDataLine.class, format);
         TargetDataLine line;
         line = (TargetDataLine) mixer.getLine(dataLineInfo);
-        line.open(format, bufferSize);
+        line.open(format, window.getBufferSize() * format.getFrameSize());
         line.start();
         final AudioInputStream stream = new AudioInputStream(line);
 
         JVMAudioInputStream audioStream = new JVMAudioInputStream(stream);
-        dispatcher = new AudioDispatcher(audioStream, bufferSize, overlap);
-        dispatcher.addAudioProcessor(new PitchProcessor(algo, sampleRate, bufferSize, this));
-
-        new Thread(dispatcher, "Audio dispatching").start();
+        pipeline.capture(window.newDispatcher(audioStream));
     }
 
     private void out(String message) {
@@ -484,12 +432,18 @@ public class Pitchenation extends JFrame implements PitchDetectionHandler {
             super(new GridLayout(0, 1));
             setBorder(new TitledBorder("Pitch detection algorithm"));
             ButtonGroup group = new ButtonGroup();
-            for (PitchEstimationAlgorithm value : PitchEstimationAlgorithm.values()) {
+            JRadioButton ensembleButton = new JRadioButton();
+            ensembleButton.setText("Ensemble (weighted vote)");
+            add(ensembleButton);
+            group.add(ensembleButton);
+            ensembleButton.setSelected(true);
+            ensembleButton.setActionCommand(ensembleAlgo);
+            ensembleButton.addActionListener(algoChangedListener);
+            for (PitchEstimationAlgorithm value : PitchEnsemble.ALGORITHMS) {
                 JRadioButton button = new JRadioButton();
                 button.setText(value.toString());
                 add(button);
                 group.add(button);
-                button.setSelected(value == defaultPitchAlgo);
                 button.setActionCommand(value.name());
                 button.addActionListener(algoChangedListener);
             }
@@ -0,0 +1,140 @@
+package com.disactor.pitchenation;
+
+import com.disactor.Actor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.disactor.pitchenation.PitchEvent.Cue.Type.GUESS;
+import static com.disactor.pitchenation.PitchEvent.Cue.Type.PLAY;
+import static com.disactor.pitchenation.PitchEvent.Cue.Type.RIDDLE;
+import static com.disactor.pitchenation.PitchEvent.Cue.Type.SOLVED;
+
+/**
+ * Game logic stage of the {@link PitchPipeline}: plays a riddle note until a sung note of the same chroma is
+ * heard, then the next one. Only ever runs on its stage thread, so the game state is plain fields. It never
+ * blocks either, it adds cues to the event for the UI/playback stage, and ignores what is heard until that
+ * stage reports the last notes it cued as {@link #performed(PitchEvent, long) performed} and they stopped sounding.
+ */
+public class RiddleGame implements Actor<PitchEvent> {
+
+    private static final String[] scale = new String[]{"C", "C#", "D", "D#", "E", "F", "F#", "G", "G#", "A", "A#", "B"};
+    private static final int[] octaves = new int[]{3, 4, 5, 6, 7};
+    private static final Map<String, Pitch> pitchByNote = Stream.of(Pitch.values())
+            .collect(Collectors.toMap(Pitch::getNote, pitch -> pitch));
+
+    private final Pitch playOnSuccess;
+    private final Random random;
+    private final Queue<Pitch> riddleQueue = new ArrayDeque<>(scale.length);
+    private Pitch riddle;
+    private boolean running;
+    private long cued;
+    private volatile long performed;
+    private volatile long quietFromNanos = System.nanoTime();
+
+    public RiddleGame(Pitch playOnSuccess, Random random) {
+        this.playOnSuccess = playOnSuccess;
+        this.random = random;
+    }
+
+    @Override
+    public void onEvent(PitchEvent event) {
+        switch (event.getKind()) {
+            case GREETING:
+                event.cue(PLAY, playOnSuccess);
+                break;
+            case START:
+                running = true;
+                riddle = null;
+                nextRiddle(event);
+                break;
+            case STOP:
+                running = false;
+                riddle = null;
+                break;
+            case FRAME:
+                guess(event);
+                break;
+        }
+        for (int i = 0; i < event.getCueCount(); i++) {
+            if (event.getCue(i).getType() == PLAY) {
+                event.setCueTicket(++cued);
+                break;
+            }
+        }
+    }
+
+    private void guess(PitchEvent event) {
+        Pitch guess = event.getGuess();
+        if (guess == null || performed < cued || System.nanoTime() - quietFromNanos < 0) {
+            return;
+        }
+        event.cue(GUESS, guess);
+        if (!running) {
+            return;
+        }
+        if (riddle == null) {
+            nextRiddle(event);
+            return;
+        }
+        out(String.format("  [%s] %s  -  [%s] %s [%.2fHz] %.2fHz %+.0fc - %.2f | %.5f", riddle.getChroma(), guess.getChroma(),
+                riddle.getEchroma(), guess.getEchroma(), riddle.getPitch(), event.getPitch(), event.getCents(),
+                event.getProbability(), event.getRms() * 100));
+        if (guess.getChroma().equals(riddle.getChroma())) {
+            event.cue(PLAY, riddle);
+            event.cue(SOLVED, playOnSuccess);
+            event.cue(PLAY, playOnSuccess);
+            riddle = null;
+            nextRiddle(event);
+        } else {
+            event.cue(PLAY, riddle);
+        }
+    }
+
+    private void nextRiddle(PitchEvent event) {
+        if (riddleQueue.isEmpty()) {
+            List<Pitch> riddles = new ArrayList<>(scale.length);
+            for (String letter : scale) {
+                riddles.add(pitchByNote.get(letter + (random.nextInt(octaves.length - octaves[0]) + octaves[0])));
+            }
+            Collections.shuffle(riddles, random);
+            out(" " + riddles + " are the next riddles");
+            riddleQueue.addAll(riddles);
+        }
+        riddle = riddleQueue.poll();
+        out(" [" + riddle.getEchroma() + "] is the new riddle");
+        event.cue(RIDDLE, riddle);
+        event.cue(PLAY, riddle);
+    }
+
+    /**
+     * Called by a UI/playback stage that blocks until the notes of the event have been played.
+     */
+    public void performed(PitchEvent event) {
+        performed(event, System.nanoTime());
+    }
+
+    /**
+     * Called by the UI/playback stage once it performed the cues of the event.
+     *
+     * @param quietFromNanos {@link System#nanoTime()} by which the cued notes stopped sounding
+     */
+    public void performed(PitchEvent event, long quietFromNanos) {
+        if (event.getCueTicket() != 0) {
+            this.quietFromNanos = quietFromNanos;
+            performed = event.getCueTicket();
+        }
+    }
+
+    private void out(String message) {
+        System.out.println(message);
+    }
+
+}
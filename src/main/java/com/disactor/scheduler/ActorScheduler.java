@@ -0,0 +1,89 @@
+package com.disactor.scheduler;
+
+import com.disactor.Actor;
+import com.disactor.Event;
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.FatalExceptionHandler;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs many low-traffic {@link Mailbox} actors on one shared executor, instead of parking a dedicated thread
+ * and a full ring buffer per {@link com.disactor.Disactor}. Keep Disactors for the hot actors.
+ * <pre>
+ * ActorScheduler scheduler = ActorScheduler.virtualThreads(4);
+ * Mailbox&lt;OrderEvent&gt; orders = scheduler.mailbox(OrderEvent::new, 16, new OrderActor());
+ * </pre>
+ */
+public class ActorScheduler {
+
+    public static final int DEFAULT_THROUGHPUT = 64;
+
+    private final ExecutorService executor;
+    private final int throughput;
+
+    public ActorScheduler(ExecutorService executor) {
+        this(executor, DEFAULT_THROUGHPUT);
+    }
+
+    /**
+     * @param throughput events a mailbox handles per turn before its worker moves on to the next mailbox
+     */
+    public ActorScheduler(ExecutorService executor, int throughput) {
+        this.executor = executor;
+        this.throughput = throughput;
+    }
+
+    /**
+     * A fixed pool of daemon worker threads.
+     */
+    public static ActorScheduler fixed(int threads) {
+        return new ActorScheduler(Executors.newFixedThreadPool(threads, DaemonThreadFactory.INSTANCE));
+    }
+
+    /**
+     * A virtual thread per mailbox turn on Java 21 and later, a fixed pool of the given size on older JVMs.
+     */
+    public static ActorScheduler virtualThreads(int fallbackThreads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return new ActorScheduler((ExecutorService) factory.invoke(null));
+        } catch (NoSuchMethodException e) {
+            return fixed(fallbackThreads);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create virtual thread executor", e);
+        }
+    }
+
+    public <EVENT extends Event<EVENT>> Mailbox<EVENT> mailbox(EventFactory<EVENT> eventFactory, int capacity, Actor<EVENT> actor) {
+        return mailbox(eventFactory, capacity, actor, new FatalExceptionHandler());
+    }
+
+    public <EVENT extends Event<EVENT>> Mailbox<EVENT> mailbox(
+            EventFactory<EVENT> eventFactory,
+            int capacity,
+            Actor<EVENT> actor,
+            ExceptionHandler<? super EVENT> exceptionHandler) {
+        return new Mailbox<>(eventFactory, capacity, actor, exceptionHandler, executor, throughput);
+    }
+
+    /**
+     * Stops accepting new turns and waits until the turns already scheduled have run.
+     */
+    public void stop() {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // keep waiting
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,196 @@
+package com.disactor.scheduler;
+
+import com.disactor.Actor;
+import com.disactor.Event;
+import com.lmax.disruptor.EventFactory;
+import com.lmax.disruptor.ExceptionHandler;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lightweight actor without a thread of its own: a small bounded queue of preallocated events, filled with
+ * {@link Event#copyFrom} like a {@link com.disactor.Disactor} ring buffer, that is handed to a shared executor
+ * only while it has pending events. Any number of threads may publish; events are handled one at a time in
+ * publish order, at most {@code throughput} per turn on the executor before yielding it to other mailboxes.
+ * <p>
+ * When the executor rejects the first turn, the publisher gets the {@link RejectedExecutionException}; its event
+ * stays queued and is handled once a later publish gets a turn scheduled. When it rejects a follow-up turn, the
+ * mailbox keeps its turn and goes on with the pending events on the current executor thread.
+ */
+public class Mailbox<EVENT extends Event<EVENT>> implements Actor<EVENT>, Runnable {
+
+    private static final int IDLE = 0;
+    private static final int SCHEDULED = 1;
+    private static final int SPIN_TRIES = 100;
+
+    private final EVENT[] events;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final AtomicInteger state = new AtomicInteger(IDLE);
+    private final Actor<EVENT> actor;
+    private final ExceptionHandler<? super EVENT> exceptionHandler;
+    private final Executor executor;
+    private final int throughput;
+
+    /**
+     * @param capacity   number of preallocated events, a power of 2
+     * @param throughput events handled per turn on the executor
+     */
+    @SuppressWarnings("unchecked")
+    public Mailbox(
+            EventFactory<EVENT> eventFactory,
+            int capacity,
+            Actor<EVENT> actor,
+            ExceptionHandler<? super EVENT> exceptionHandler,
+            Executor executor,
+            int throughput) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of 2: " + capacity);
+        }
+        this.events = (EVENT[]) new Event<?>[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            events[i] = eventFactory.newInstance();
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+        this.actor = actor;
+        this.exceptionHandler = exceptionHandler;
+        this.executor = executor;
+        this.throughput = throughput;
+    }
+
+    /**
+     * Copies the event into the mailbox, spinning then yielding while it is full.
+     */
+    @Override
+    public void onEvent(EVENT event) {
+        int tries = 0;
+        long sequence;
+        while ((sequence = tryClaim()) < 0) {
+            if (++tries > SPIN_TRIES) {
+                Thread.yield();
+            }
+        }
+        publish(sequence, event);
+    }
+
+    /**
+     * @return false when the mailbox is full, the event is then dropped
+     */
+    public boolean tryOnEvent(EVENT event) {
+        long sequence = tryClaim();
+        if (sequence < 0) {
+            return false;
+        }
+        publish(sequence, event);
+        return true;
+    }
+
+    private long tryClaim() {
+        while (true) {
+            long sequence = claimed.get();
+            if (sequence - consumed.get() > mask) {
+                return -1;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    private void publish(long sequence, EVENT event) {
+        int index = (int) sequence & mask;
+        events[index].copyFrom(event);
+        published.set(index, sequence);
+        schedule();
+    }
+
+    private void schedule() {
+        if (state.get() == IDLE && state.compareAndSet(IDLE, SCHEDULED)) {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                state.set(IDLE);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * One turn on the executor, not to be called directly.
+     */
+    @Override
+    public void run() {
+        try {
+            do {
+                turn();
+            } while (keepsTurn());
+        } catch (Throwable e) { // thrown by the exception handler
+            state.set(IDLE);
+            if (hasPending()) {
+                try {
+                    schedule();
+                } catch (RejectedExecutionException rejected) {
+                    e.addSuppressed(rejected); // the next publish schedules the pending events
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void turn() {
+        long next = consumed.get();
+        for (int i = 0; i < throughput && published.get((int) next & mask) == next; i++) {
+            EVENT event = events[(int) next & mask];
+            try {
+                actor.onEvent(event);
+            } catch (Throwable e) {
+                exceptionHandler.handleEventException(e, next, event);
+            } finally {
+                consumed.lazySet(++next);
+            }
+        }
+    }
+
+    /**
+     * Ends the turn, handing the pending events to the executor as a new turn.
+     *
+     * @return true if the executor rejected the new turn, the mailbox then stays scheduled for this thread
+     */
+    private boolean keepsTurn() {
+        state.set(IDLE);
+        if (!hasPending() || !state.compareAndSet(IDLE, SCHEDULED)) {
+            return false;
+        }
+        try {
+            executor.execute(this);
+            return false;
+        } catch (RejectedExecutionException e) {
+            return true;
+        }
+    }
+
+    private boolean hasPending() {
+        long next = consumed.get();
+        return published.get((int) next & mask) == next;
+    }
+
+    /**
+     * @return events published but not handled yet
+     */
+    public long getBacklog() {
+        return claimed.get() - consumed.get();
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.disactor.spring;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pins threads to a CPU set without native code, once per Disactor: a starter thread looks up its own Linux
+ * thread id through {@code /proc/thread-self}, restricts itself with {@code taskset}, then starts the
+ * Disactor, whose threads inherit the CPU set. Threads started later, e.g. by a resize, inherit the set
+ * of the thread starting them. Where pinning is unavailable it fails instead of running unpinned.
+ */
+public final class CpuAffinity {
+
+    private static final Path THREAD_SELF = Paths.get("/proc/thread-self");
+    private static final ProcessBuilder.Redirect DEV_NULL = ProcessBuilder.Redirect.to(new File("/dev/null"));
+
+    private CpuAffinity() {
+    }
+
+    /**
+     * Runs the task on a new thread restricted to the CPU set and waits for it, so every thread the task
+     * starts is restricted too.
+     *
+     * @param cpus CPU list in taskset syntax, e.g. {@code 2,4-5}
+     * @throws IllegalStateException if the thread could not be pinned
+     */
+    public static void runPinned(String cpus, Runnable task) {
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Thread starter = new Thread(() -> {
+            try {
+                pinCurrentThread(cpus);
+                task.run();
+            } catch (RuntimeException e) {
+                failure.set(e);
+            }
+        }, "cpu-affinity-" + cpus);
+        starter.start();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                starter.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * Restricts the current thread, and the threads it starts from now on, to the CPU set.
+     *
+     * @throws IllegalStateException if the thread could not be pinned
+     */
+    public static void pinCurrentThread(String cpus) {
+        String name = Thread.currentThread().getName();
+        try {
+            String tid = Files.readSymbolicLink(THREAD_SELF).getFileName().toString();
+            Process taskset = new ProcessBuilder("taskset", "-p", "-c", cpus, tid)
+                    .redirectErrorStream(true)
+                    .redirectOutput(DEV_NULL)
+                    .start();
+            int exit = taskset.waitFor();
+            if (exit != 0) {
+                throw new IllegalStateException("taskset -c " + cpus + " exited with " + exit + ", " + name + " is not pinned");
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            throw new IllegalStateException("CPU pinning unavailable, " + name + " is not pinned", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while pinning " + name, e);
+        }
+    }
+
+}
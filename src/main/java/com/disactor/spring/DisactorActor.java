@@ -0,0 +1,30 @@
+package com.disactor.spring;
+
+import com.disactor.Event;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an {@link com.disactor.Actor} bean (its class or its {@code @Bean} method) to get its own
+ * {@link com.disactor.Disactor} bean, named {@code <actorBean>Disactor} unless {@link #name()} is set.
+ * Buffer size, wait strategy and CPU set come from the {@code disactor.*} properties, overridable per
+ * Disactor under {@code disactor.actors.<name>.*}.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface DisactorActor {
+
+    /**
+     * Event type of the ring buffer, needs a no-arg constructor to preallocate the slots.
+     */
+    @SuppressWarnings("rawtypes")
+    Class<? extends Event> event();
+
+    String name() default "";
+
+}
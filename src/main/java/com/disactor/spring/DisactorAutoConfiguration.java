@@ -0,0 +1,51 @@
+package com.disactor.spring;
+
+import com.disactor.Disactor;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Turns {@link DisactorActor} beans into started {@link Disactor} beans, see {@link DisactorProperties}
+ * for the settings. Registered in {@code META-INF/spring.factories}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(Disactor.class)
+@EnableConfigurationProperties(DisactorProperties.class)
+public class DisactorAutoConfiguration {
+
+    @Bean
+    public static DisactorRegistrar disactorRegistrar() {
+        return new DisactorRegistrar();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public DisactorFactory disactorFactory(DisactorProperties properties) {
+        return new DisactorFactory(properties);
+    }
+
+    @Bean
+    public DisactorLifecycle disactorLifecycle(BeanFactory beanFactory, DisactorRegistrar registrar, DisactorProperties properties) {
+        return new DisactorLifecycle(beanFactory, registrar, properties);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Endpoint.class)
+    static class EndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        public DisactorEndpoint disactorEndpoint(ListableBeanFactory beanFactory) {
+            return new DisactorEndpoint(beanFactory);
+        }
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.disactor.spring;
+
+import com.disactor.Disactor;
+import com.disactor.metrics.DisactorMetrics;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/disactor}: ring buffer counters and latency percentiles of every Disactor bean,
+ * {@code /actuator/disactor/{name}} for a single one.
+ */
+@Endpoint(id = "disactor")
+public class DisactorEndpoint {
+
+    private final ListableBeanFactory beanFactory;
+
+    public DisactorEndpoint(ListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    @ReadOperation
+    @SuppressWarnings("rawtypes")
+    public Map<String, DisactorMetrics> disactors() {
+        Map<String, DisactorMetrics> metrics = new TreeMap<>();
+        for (Map.Entry<String, Disactor> disactor : beanFactory.getBeansOfType(Disactor.class, false, false).entrySet()) {
+            metrics.put(disactor.getKey(), disactor.getValue().getMetrics());
+        }
+        return metrics;
+    }
+
+    @ReadOperation
+    public DisactorMetrics disactor(@Selector String name) {
+        return beanFactory.containsBean(name) && beanFactory.isTypeMatch(name, Disactor.class)
+                ? beanFactory.getBean(name, Disactor.class).getMetrics()
+                : null;
+    }
+
+}
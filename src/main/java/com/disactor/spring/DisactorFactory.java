@@ -0,0 +1,69 @@
+package com.disactor.spring;
+
+import com.disactor.Actor;
+import com.disactor.Disactor;
+import com.disactor.Event;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.springframework.beans.BeanUtils;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the Disactors of {@link DisactorActor} beans from {@link DisactorProperties}. Replace the bean to
+ * customise what the properties cannot express, e.g. the exception handler or extra stages.
+ */
+public class DisactorFactory {
+
+    private final DisactorProperties properties;
+
+    public DisactorFactory(DisactorProperties properties) {
+        this.properties = properties;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Disactor<?> create(String name, Class<?> eventType, Actor<?> actor) {
+        Disactor.Builder builder = builder(name, (Class) eventType);
+        return builder.actor(actor).build();
+    }
+
+    protected <EVENT extends Event<EVENT>> Disactor.Builder<EVENT> builder(String name, Class<EVENT> eventType) {
+        DisactorProperties.Actor overrides = properties.getActors().get(name);
+        if (overrides == null) {
+            overrides = new DisactorProperties.Actor();
+        }
+        Constructor<EVENT> constructor;
+        try {
+            constructor = eventType.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(eventType.getName() + " needs a no-arg constructor to preallocate " + name, e);
+        }
+        Disactor.Builder<EVENT> builder = Disactor.<EVENT>builder()
+                .eventFactory(() -> BeanUtils.instantiateClass(constructor))
+                .bufferSize(or(overrides.getBufferSize(), properties.getBufferSize()))
+                .waitStrategy(or(overrides.getWaitStrategy(), properties.getWaitStrategy()).newWaitStrategy())
+                .producerType(or(overrides.getProducerType(), properties.getProducerType()))
+                .latencyMetrics(or(overrides.getLatencySampling(), properties.getLatencySampling()))
+                .threadFactory(threadFactory(name));
+        return builder;
+    }
+
+    /**
+     * The threads are pinned to the configured CPUs by {@link DisactorLifecycle}, which starts the Disactor
+     * from a pinned thread.
+     */
+    protected ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = DaemonThreadFactory.INSTANCE.newThread(runnable);
+            thread.setName(name + "-" + count.getAndIncrement());
+            return thread;
+        };
+    }
+
+    private static <T> T or(T value, T fallback) {
+        return value != null ? value : fallback;
+    }
+
+}
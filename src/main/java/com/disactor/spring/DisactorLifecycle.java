@@ -0,0 +1,74 @@
+package com.disactor.spring;
+
+import com.disactor.Disactor;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the Disactors registered by {@link DisactorRegistrar} before the default lifecycle phase, each from a
+ * thread pinned to its configured CPUs, and drains and stops them in reverse order after everything that might
+ * still publish has stopped.
+ */
+public class DisactorLifecycle implements SmartLifecycle {
+
+    private static final Log log = LogFactory.getLog(DisactorLifecycle.class);
+
+    private final BeanFactory beanFactory;
+    private final DisactorRegistrar registrar;
+    private final DisactorProperties properties;
+    private volatile boolean running;
+
+    public DisactorLifecycle(BeanFactory beanFactory, DisactorRegistrar registrar, DisactorProperties properties) {
+        this.beanFactory = beanFactory;
+        this.registrar = registrar;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        for (String name : registrar.getDisactorNames()) {
+            Disactor<?> disactor = beanFactory.getBean(name, Disactor.class);
+            String cpus = cpus(name);
+            if (StringUtils.hasText(cpus)) {
+                CpuAffinity.runPinned(cpus, disactor::start);
+            } else {
+                disactor.start();
+            }
+        }
+        running = true;
+    }
+
+    private String cpus(String name) {
+        DisactorProperties.Actor overrides = properties.getActors().get(name);
+        return overrides != null && overrides.getCpus() != null ? overrides.getCpus() : properties.getCpus();
+    }
+
+    @Override
+    public void stop() {
+        List<String> names = registrar.getDisactorNames();
+        long timeoutNanos = properties.getShutdownTimeout().toNanos();
+        for (int i = names.size() - 1; i >= 0; i--) {
+            if (!beanFactory.getBean(names.get(i), Disactor.class).drainAndStop(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                log.warn(names.get(i) + " did not drain within " + properties.getShutdownTimeout());
+            }
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return properties.getPhase();
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.disactor.spring;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * {@code disactor.*} defaults for every {@link DisactorActor}, e.g.
+ * <pre>
+ * disactor.buffer-size=4096
+ * disactor.wait-strategy=yielding
+ * disactor.actors.ordersDisactor.cpus=2-3
+ * </pre>
+ */
+@ConfigurationProperties("disactor")
+public class DisactorProperties {
+
+    public enum WaitStrategyType {
+        BLOCKING(BlockingWaitStrategy::new),
+        SLEEPING(SleepingWaitStrategy::new),
+        YIELDING(YieldingWaitStrategy::new),
+        BUSY_SPIN(BusySpinWaitStrategy::new);
+
+        private final Supplier<WaitStrategy> factory;
+
+        WaitStrategyType(Supplier<WaitStrategy> factory) {
+            this.factory = factory;
+        }
+
+        public WaitStrategy newWaitStrategy() {
+            return factory.get();
+        }
+    }
+
+    private int bufferSize = 1024;
+    private WaitStrategyType waitStrategy = WaitStrategyType.BLOCKING;
+    private ProducerType producerType = ProducerType.MULTI;
+    /**
+     * Records the latency of every n-th event, 0 disables latency metrics.
+     */
+    private int latencySampling;
+    /**
+     * CPU list in taskset syntax, e.g. {@code 2,4-5}; empty leaves the threads to the OS scheduler.
+     */
+    private String cpus;
+    /**
+     * Started before and stopped after the default phase, so web and messaging components
+     * never see a stopped Disactor.
+     */
+    private int phase = SmartLifecycle.DEFAULT_PHASE - 1024;
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+    private final Map<String, Actor> actors = new LinkedHashMap<>();
+
+    /**
+     * Per Disactor overrides, unset values fall back to the defaults above.
+     */
+    public static class Actor {
+
+        private Integer bufferSize;
+        private WaitStrategyType waitStrategy;
+        private ProducerType producerType;
+        private Integer latencySampling;
+        private String cpus;
+
+        public Integer getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(Integer bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public WaitStrategyType getWaitStrategy() {
+            return waitStrategy;
+        }
+
+        public void setWaitStrategy(WaitStrategyType waitStrategy) {
+            this.waitStrategy = waitStrategy;
+        }
+
+        public ProducerType getProducerType() {
+            return producerType;
+        }
+
+        public void setProducerType(ProducerType producerType) {
+            this.producerType = producerType;
+        }
+
+        public Integer getLatencySampling() {
+            return latencySampling;
+        }
+
+        public void setLatencySampling(Integer latencySampling) {
+            this.latencySampling = latencySampling;
+        }
+
+        public String getCpus() {
+            return cpus;
+        }
+
+        public void setCpus(String cpus) {
+            this.cpus = cpus;
+        }
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public WaitStrategyType getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    public void setWaitStrategy(WaitStrategyType waitStrategy) {
+        this.waitStrategy = waitStrategy;
+    }
+
+    public ProducerType getProducerType() {
+        return producerType;
+    }
+
+    public void setProducerType(ProducerType producerType) {
+        this.producerType = producerType;
+    }
+
+    public int getLatencySampling() {
+        return latencySampling;
+    }
+
+    public void setLatencySampling(int latencySampling) {
+        this.latencySampling = latencySampling;
+    }
+
+    public String getCpus() {
+        return cpus;
+    }
+
+    public void setCpus(String cpus) {
+        this.cpus = cpus;
+    }
+
+    public int getPhase() {
+        return phase;
+    }
+
+    public void setPhase(int phase) {
+        this.phase = phase;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    public Map<String, Actor> getActors() {
+        return actors;
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.disactor.spring;
+
+import com.disactor.Actor;
+import com.disactor.Disactor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotationAttributes;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registers a {@link Disactor} bean next to every bean definition carrying {@link DisactorActor}. Only the
+ * metadata of the already registered definitions is read, no classes are scanned and no beans are created
+ * early; the Disactor itself is built by {@link DisactorFactory} when it is first needed.
+ */
+public class DisactorRegistrar implements BeanDefinitionRegistryPostProcessor {
+
+    private final List<String> disactorNames = new ArrayList<>();
+
+    @Override
+    public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+        BeanFactory beanFactory = (BeanFactory) registry;
+        for (String actorName : registry.getBeanDefinitionNames()) {
+            AnnotationAttributes annotation = findAnnotation(registry.getBeanDefinition(actorName));
+            if (annotation == null) {
+                continue;
+            }
+            String name = annotation.getString("name");
+            String disactorName = StringUtils.hasText(name) ? name : actorName + "Disactor";
+            Class<?> eventType = annotation.getClass("event");
+
+            RootBeanDefinition definition = new RootBeanDefinition(Disactor.class);
+            definition.setTargetType(ResolvableType.forClassWithGenerics(Disactor.class, eventType));
+            definition.setDependsOn(actorName);
+            definition.setInstanceSupplier(() -> beanFactory.getBean(DisactorFactory.class)
+                    .create(disactorName, eventType, beanFactory.getBean(actorName, Actor.class)));
+            registry.registerBeanDefinition(disactorName, definition);
+            disactorNames.add(disactorName);
+        }
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+    }
+
+    /**
+     * @return names of the registered Disactor beans, in registration order
+     */
+    public List<String> getDisactorNames() {
+        return Collections.unmodifiableList(disactorNames);
+    }
+
+    private static AnnotationAttributes findAnnotation(BeanDefinition definition) {
+        if (definition instanceof AnnotatedBeanDefinition) {
+            AnnotatedBeanDefinition annotated = (AnnotatedBeanDefinition) definition;
+            AnnotatedTypeMetadata metadata = annotated.getFactoryMethodMetadata() != null
+                    ? annotated.getFactoryMethodMetadata()
+                    : annotated.getMetadata();
+            Map<String, Object> attributes = metadata.getAnnotationAttributes(DisactorActor.class.getName());
+            return attributes == null ? null : AnnotationAttributes.fromMap(attributes);
+        }
+        if (definition instanceof AbstractBeanDefinition && ((AbstractBeanDefinition) definition).hasBeanClass()) {
+            Class<?> beanClass = ((AbstractBeanDefinition) definition).getBeanClass();
+            DisactorActor annotation = AnnotationUtils.findAnnotation(beanClass, DisactorActor.class);
+            return annotation == null ? null : AnnotationUtils.getAnnotationAttributes(annotation, false, false);
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.disactor;
+
+import com.disactor.sample.LongEvent;
+import com.disactor.sample.SquareRequest;
+import com.lmax.disruptor.IgnoreExceptionHandler;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DisactorAskTest {
+
+    @Test
+    public void askWaitsForTheReply() throws Exception {
+        Disactor<SquareRequest> disactor = Disactor.<SquareRequest>builder()
+                .eventFactory(SquareRequest::new)
+                .bufferSize(16)
+                .actor(request -> request.reply(request.getValue() * request.getValue()))
+                .build();
+        disactor.start();
+        SquareRequest request = new SquareRequest();
+        for (Promise.Wait wait : Promise.Wait.values()) {
+            for (int i = 0; i < 100; i++) {
+                request.setValue(i);
+                long square = disactor.<Long>ask(request, wait);
+                assertEquals(i * i, square);
+            }
+        }
+        disactor.stop();
+    }
+
+    @Test
+    public void askWithoutTimeoutBlocksUntilTheReply() throws Exception {
+        CountDownLatch replying = new CountDownLatch(1);
+        Disactor<SquareRequest> disactor = Disactor.<SquareRequest>builder()
+                .eventFactory(SquareRequest::new)
+                .bufferSize(16)
+                .actor(request -> {
+                    try {
+                        replying.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    request.reply(request.getValue() * request.getValue());
+                })
+                .build();
+        disactor.start();
+        ExecutorService asker = Executors.newSingleThreadExecutor();
+        try {
+            Future<Long> square = asker.submit(() -> {
+                SquareRequest request = new SquareRequest();
+                request.setValue(3);
+                return disactor.<Long>ask(request, Promise.Wait.PARK);
+            });
+            try {
+                square.get(50, TimeUnit.MILLISECONDS);
+                fail();
+            } catch (TimeoutException expected) {
+                // still waiting for the actor
+            }
+            replying.countDown();
+            assertEquals(9L, (long) square.get(5, TimeUnit.SECONDS));
+        } finally {
+            replying.countDown();
+            asker.shutdownNow();
+            disactor.stop();
+        }
+    }
+
+    @Test
+    public void anUnansweredAskDoesNotLeaveItsPromiseInTheSlot() throws Exception {
+        List<Boolean> promised = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch handled = new CountDownLatch(2);
+        Disactor<SquareRequest> disactor = Disactor.<SquareRequest>builder()
+                .eventFactory(SquareRequest::new)
+                .bufferSize(1)
+                .actor(request -> {
+                    promised.add(request.getPromise() != null);
+                    handled.countDown();
+                })
+                .build();
+        disactor.start();
+        SquareRequest request = new SquareRequest();
+        try {
+            disactor.ask(request, Promise.Wait.PARK, 10, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (TimeoutException expected) {
+            // the actor never replies
+        }
+        disactor.onEvent(request);
+
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        disactor.stop();
+        assertEquals(Arrays.asList(true, false), promised);
+    }
+
+    @Test
+    public void askFailsWhenTheActorThrows() throws Exception {
+        Disactor<SquareRequest> disactor = Disactor.<SquareRequest>builder()
+                .eventFactory(SquareRequest::new)
+                .bufferSize(16)
+                .exceptionHandler(new IgnoreExceptionHandler())
+                .actor(request -> {
+                    if (request.getValue() < 0) {
+                        throw new IllegalArgumentException("negative");
+                    }
+                    request.reply(request.getValue());
+                })
+                .build();
+        disactor.start();
+        SquareRequest request = new SquareRequest();
+        request.setValue(-1);
+        try {
+            disactor.ask(request, Promise.Wait.PARK, 5, TimeUnit.SECONDS);
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        request.setValue(7);
+        assertEquals(7L, (long) disactor.<Long>ask(request, Promise.Wait.PARK, 5, TimeUnit.SECONDS));
+        disactor.stop();
+    }
+
+    @Test
+    public void askRejectsEventsThatAreNotAskableWithoutClaimingASlot() throws Exception {
+        Disactor<LongEvent> disactor = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .bufferSize(16)
+                .actor(event -> {
+                })
+                .build();
+        try {
+            disactor.ask(new LongEvent(1), Promise.Wait.PARK);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertEquals(-1, disactor.getRingBuffer().getCursor());
+        }
+    }
+
+}
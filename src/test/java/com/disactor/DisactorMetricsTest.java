@@ -0,0 +1,88 @@
+package com.disactor;
+
+import com.disactor.metrics.DisactorJmx;
+import com.disactor.metrics.DisactorMetrics;
+import com.disactor.sample.LongEvent;
+import com.lmax.disruptor.RingBuffer;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DisactorMetricsTest {
+
+    @Test
+    public void reportsBacklogAndLatencyMetrics() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch handled = new CountDownLatch(5);
+        Disactor<LongEvent> disactor = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .bufferSize(8)
+                .latencyMetrics(true)
+                .actor(event -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    handled.countDown();
+                })
+                .build();
+        disactor.start();
+        for (int i = 0; i < 5; i++) {
+            disactor.onEvent(new LongEvent(i));
+        }
+
+        DisactorMetrics metrics = disactor.getMetrics();
+        assertEquals(8, metrics.getBufferSize());
+        assertEquals(5, metrics.getPublishedCount());
+        assertEquals(5, metrics.getBacklog());
+        assertEquals(3, metrics.getRemainingCapacity());
+
+        ObjectName name = DisactorJmx.register("metrics-test", disactor);
+        release.countDown();
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        disactor.stop();
+
+        metrics = disactor.getMetrics();
+        assertEquals(5, metrics.getHandledCount());
+        assertEquals(0, metrics.getBacklog());
+        assertEquals(5, metrics.getQueueTime().getCount());
+        assertEquals(5, metrics.getServiceTime().getCount());
+        CompositeData jmxMetrics = (CompositeData) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Metrics");
+        assertEquals(5L, jmxMetrics.get("handledCount"));
+        DisactorJmx.unregister(name);
+    }
+
+    @Test
+    public void queueTimeSkipsEventsPublishedWithoutAStamp() throws Exception {
+        CountDownLatch handled = new CountDownLatch(20);
+        Disactor<LongEvent> disactor = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .bufferSize(8)
+                .latencyMetrics(true)
+                .actor(event -> handled.countDown())
+                .build();
+        disactor.start();
+        for (int i = 0; i < 10; i++) {
+            disactor.onEvent(new LongEvent(i));
+            RingBuffer<LongEvent> ringBuffer = disactor.getRingBuffer();
+            long seq = ringBuffer.next();
+            ringBuffer.get(seq).setValue(i);
+            ringBuffer.publish(seq);
+        }
+
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        disactor.stop();
+        DisactorMetrics metrics = disactor.getMetrics();
+        assertEquals(10, metrics.getQueueTime().getCount());
+        assertEquals(20, metrics.getServiceTime().getCount());
+    }
+
+}
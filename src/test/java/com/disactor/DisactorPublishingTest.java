@@ -0,0 +1,221 @@
+package com.disactor;
+
+import com.disactor.sample.LongEvent;
+import com.lmax.disruptor.FatalExceptionHandler;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DisactorPublishingTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void onEventsPublishesBatchesLargerThanTheBuffer() throws Exception {
+        int count = 100;
+        List<Long> received = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(count);
+        Disactor<LongEvent> disactor = new Disactor<>(
+                LongEvent::new,
+                16,
+                new FatalExceptionHandler(),
+                executor,
+                event -> {
+                    received.add(event.getValue());
+                    latch.countDown();
+                });
+        disactor.start();
+
+        LongEvent[] events = new LongEvent[count + 2];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new LongEvent(i);
+        }
+        disactor.onEvents(events, 1, count);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        disactor.stop();
+        for (int i = 0; i < count; i++) {
+            assertEquals(i + 1, (long) received.get(i));
+        }
+    }
+
+    @Test
+    public void dropNewestRejectsEventsWhileTheActorIsStalled() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch handled = new CountDownLatch(4);
+        Disactor<LongEvent> disactor = new Disactor<>(
+                LongEvent::new,
+                4,
+                new FatalExceptionHandler(),
+                executor,
+                event -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    handled.countDown();
+                },
+                OverflowPolicy.DROP_NEWEST);
+        disactor.start();
+
+        for (int i = 0; i < 10; i++) {
+            disactor.onEvent(new LongEvent(i));
+        }
+        assertFalse(disactor.tryOnEvent(new LongEvent(10)));
+        assertEquals(7, disactor.getRejectedCount());
+
+        release.countDown();
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        disactor.stop();
+    }
+
+    @Test
+    public void spinThenParkWithoutTimeoutWaitsForAFreeSlot() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch handled = new CountDownLatch(10);
+        Disactor<LongEvent> disactor = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .bufferSize(4)
+                .overflowPolicy(OverflowPolicy.SPIN_THEN_PARK)
+                .actor(event -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    handled.countDown();
+                })
+                .build();
+        disactor.start();
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                disactor.onEvent(new LongEvent(i));
+            }
+        });
+        producer.start();
+        producer.join(100);
+        assertTrue(producer.isAlive());
+
+        release.countDown();
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        disactor.stop();
+        assertEquals(0, disactor.getRejectedCount());
+    }
+
+    @Test
+    public void builderCreatesSingleProducerDisactor() throws Exception {
+        CountDownLatch latch = new CountDownLatch(3);
+        Disactor<LongEvent> disactor = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .bufferSize(8)
+                .producerType(ProducerType.SINGLE)
+                .waitStrategy(new YieldingWaitStrategy())
+                .actor(event -> latch.countDown())
+                .build();
+        disactor.start();
+        for (int i = 0; i < 3; i++) {
+            disactor.onEvent(new LongEvent(i));
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        disactor.stop();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void builderRejectsBufferSizeThatIsNotAPowerOfTwo() {
+        Disactor.<LongEvent>builder().bufferSize(100);
+    }
+
+    @Test
+    public void stagesHandleTheSameSlotInPlace() throws Exception {
+        int count = 50;
+        List<Long> left = Collections.synchronizedList(new ArrayList<>());
+        List<Long> right = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> seenByLast = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(count);
+        Disactor<LongEvent> disactor = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .bufferSize(8)
+                .actor(event -> event.setValue(event.getValue() * 10))
+                .stage(event -> left.add(event.getValue()), event -> right.add(event.getValue()))
+                .actor(event -> {
+                    seenByLast.add(left.size() + right.size());
+                    latch.countDown();
+                })
+                .build();
+        disactor.start();
+        for (int i = 0; i < count; i++) {
+            disactor.onEvent(new LongEvent(i));
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        disactor.stop();
+        for (int i = 0; i < count; i++) {
+            assertEquals(i * 10L, (long) left.get(i));
+            assertEquals(i * 10L, (long) right.get(i));
+            assertTrue(seenByLast.get(i) >= 2 * (i + 1));
+        }
+    }
+
+    @Test
+    public void batchAwareActorSeesBatchBoundaries() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<Long> batchSizes = new ArrayList<>();
+        List<Boolean> endOfBatches = new ArrayList<>();
+        Disactor<LongEvent> disactor = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .bufferSize(16)
+                .actor(new BatchAwareActor<LongEvent>() {
+                    @Override
+                    public void onBatchStart(long batchSize) {
+                        batchSizes.add(batchSize);
+                    }
+
+                    @Override
+                    public void onEvent(LongEvent event, long sequence, boolean endOfBatch) {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        endOfBatches.add(endOfBatch);
+                        if (sequence == 10) {
+                            done.countDown();
+                        }
+                    }
+                })
+                .build();
+        disactor.start();
+        for (int i = 0; i <= 10; i++) {
+            disactor.onEvent(new LongEvent(i));
+        }
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        disactor.stop();
+        assertEquals(11, batchSizes.stream().mapToLong(Long::longValue).sum());
+        assertEquals(batchSizes.size(), endOfBatches.stream().filter(Boolean::booleanValue).count());
+        assertTrue(batchSizes.size() < 11);
+        assertTrue(endOfBatches.get(10));
+    }
+
+}
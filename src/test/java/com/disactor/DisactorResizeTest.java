@@ -0,0 +1,254 @@
+package com.disactor;
+
+import com.disactor.metrics.DisactorMetrics;
+import com.disactor.sample.LongEvent;
+import com.lmax.disruptor.FatalExceptionHandler;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DisactorResizeTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void drainAndStopHandlesTheBacklogThenRejects() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        Disactor<LongEvent> disactor = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .bufferSize(64)
+                .actor(event -> {
+                    try {
+                        stalled.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    received.add(event.getValue());
+                })
+                .build();
+        disactor.start();
+        for (int i = 0; i < 50; i++) {
+            disactor.onEvent(new LongEvent(i));
+        }
+        stalled.countDown();
+
+        assertTrue(disactor.drainAndStop(5, TimeUnit.SECONDS));
+        assertEquals(50, received.size());
+        disactor.onEvent(new LongEvent(50));
+        assertFalse(disactor.tryOnEvent(new LongEvent(51)));
+        assertEquals(2, disactor.getRejectedCount());
+    }
+
+    @Test
+    public void resizeKeepsEveryEventInOrder() throws Exception {
+        int count = 100_000;
+        List<Long> received = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(count);
+        Disactor<LongEvent> disactor = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .bufferSize(16)
+                .actor(event -> {
+                    received.add(event.getValue());
+                    latch.countDown();
+                })
+                .build();
+        disactor.start();
+        Thread producer = new Thread(() -> {
+            LongEvent event = new LongEvent();
+            for (int i = 0; i < count; i++) {
+                event.setValue(i);
+                disactor.onEvent(event);
+            }
+        });
+        producer.start();
+        assertTrue(disactor.resize(256, 5, TimeUnit.SECONDS));
+        assertTrue(disactor.resize(4096, 5, TimeUnit.SECONDS));
+        producer.join();
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(4096, disactor.getRingBuffer().getBufferSize());
+        disactor.stop();
+        assertEquals(count, disactor.getMetrics().getHandledCount());
+        assertEquals(count, received.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, (long) received.get(i));
+        }
+    }
+
+    @Test
+    public void resizeIsCalledOffWhenTheActorsDoNotCatchUp() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        Disactor<LongEvent> disactor = new Disactor<>(
+                LongEvent::new,
+                16,
+                new FatalExceptionHandler(),
+                executor,
+                event -> {
+                    try {
+                        stalled.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    received.add(event.getValue());
+                });
+        disactor.start();
+        for (int i = 0; i < 8; i++) {
+            disactor.onEvent(new LongEvent(i));
+        }
+
+        assertFalse(disactor.resize(64, 10, TimeUnit.MILLISECONDS));
+        assertEquals(16, disactor.getRingBuffer().getBufferSize());
+        disactor.onEvent(new LongEvent(8));
+        stalled.countDown();
+        assertTrue(disactor.resize(64, 5, TimeUnit.SECONDS));
+        disactor.onEvent(new LongEvent(9));
+
+        assertTrue(disactor.drainAndStop(5, TimeUnit.SECONDS));
+        assertEquals(64, disactor.getRingBuffer().getBufferSize());
+        assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L), received);
+    }
+
+    @Test
+    public void resizeBeforeStartForwardsAndStampsTheQueuedEvents() throws Exception {
+        List<Long> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch handled = new CountDownLatch(12);
+        Disactor<LongEvent> disactor = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .bufferSize(16)
+                .latencyMetrics(true)
+                .actor(event -> {
+                    received.add(event.getValue());
+                    handled.countDown();
+                })
+                .build();
+        for (int i = 0; i < 10; i++) {
+            disactor.onEvent(new LongEvent(i));
+        }
+        assertTrue(disactor.resize(64, 0, TimeUnit.SECONDS));
+        disactor.onEvent(new LongEvent(10));
+        disactor.start();
+        disactor.onEvent(new LongEvent(11));
+
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        disactor.stop();
+        assertEquals(12, received.size());
+        for (int i = 0; i < 12; i++) {
+            assertEquals(i, (long) received.get(i));
+        }
+        DisactorMetrics metrics = disactor.getMetrics();
+        assertEquals(12, metrics.getPublishedCount());
+        assertEquals(12, metrics.getQueueTime().getCount());
+    }
+
+    @Test
+    public void drainAndStopAccountsForEveryEventOfConcurrentProducers() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        LongAdder received = new LongAdder();
+        Disactor<LongEvent> disactor = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .bufferSize(64)
+                .actor(event -> received.increment())
+                .build();
+        disactor.start();
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            Thread thread = new Thread(() -> {
+                LongEvent event = new LongEvent();
+                for (int i = 0; i < perProducer; i++) {
+                    event.setValue(i);
+                    disactor.onEvent(event);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        while (received.sum() < perProducer) {
+            Thread.yield();
+        }
+        disactor.drainAndStop(5, TimeUnit.SECONDS);
+        for (Thread thread : threads) {
+            thread.join(5000);
+            assertFalse(thread.isAlive());
+        }
+
+        assertEquals(producers * perProducer, received.sum() + disactor.getRejectedCount());
+    }
+
+    @Test
+    public void swappedActorTakesOverWithoutLosingEvents() throws Exception {
+        int count = 10_000;
+        List<Long> first = Collections.synchronizedList(new ArrayList<>());
+        List<Long> second = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(count);
+        SwappableActor<LongEvent> actor = new SwappableActor<>(event -> {
+            first.add(event.getValue());
+            latch.countDown();
+        });
+        Disactor<LongEvent> disactor = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .bufferSize(64)
+                .actor(actor)
+                .build();
+        disactor.start();
+        LongEvent event = new LongEvent();
+        for (int i = 0; i < count; i++) {
+            if (i == count / 2) {
+                actor.swap(e -> {
+                    second.add(e.getValue());
+                    latch.countDown();
+                });
+            }
+            event.setValue(i);
+            disactor.onEvent(event);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        disactor.stop();
+        assertEquals(count, first.size() + second.size());
+        assertFalse(second.isEmpty());
+        assertEquals(count - 1, (long) second.get(second.size() - 1));
+    }
+
+    @Test
+    public void aPrebuiltDisruptorCannotBeDrained() throws Exception {
+        CountDownLatch handled = new CountDownLatch(1);
+        Disruptor<LongEvent> disruptor = new Disruptor<>(LongEvent::new, 16, DaemonThreadFactory.INSTANCE);
+        Disactor<LongEvent> disactor = new Disactor<>(disruptor, new FatalExceptionHandler(), event -> handled.countDown());
+        disactor.start();
+        try {
+            disactor.drainAndStop(5, TimeUnit.SECONDS);
+            fail();
+        } catch (UnsupportedOperationException expected) {
+            // its processors are not tracked, a handler could still be running
+        }
+        disactor.onEvent(new LongEvent(1));
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        assertEquals(0, disactor.getRejectedCount());
+        disactor.stop();
+    }
+
+}
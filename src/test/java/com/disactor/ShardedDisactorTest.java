@@ -0,0 +1,67 @@
+package com.disactor;
+
+import com.disactor.sample.LongEvent;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ShardedDisactorTest {
+
+    @Test
+    public void keepsOrderPerKey() throws Exception {
+        int keys = 16;
+        int perKey = 200;
+        Map<Long, Long> lastByKey = new ConcurrentHashMap<>();
+        Map<Long, Thread> threadByKey = new ConcurrentHashMap<>();
+        AtomicBoolean outOfOrder = new AtomicBoolean();
+        CountDownLatch latch = new CountDownLatch(keys * perKey);
+        ShardedDisactor<LongEvent> sharded = new ShardedDisactor<>(
+                4,
+                shard -> Disactor.<LongEvent>builder()
+                        .eventFactory(LongEvent::new)
+                        .bufferSize(64)
+                        .actor(event -> {
+                            long key = event.getValue() % keys;
+                            Long last = lastByKey.put(key, event.getValue());
+                            Thread thread = threadByKey.putIfAbsent(key, Thread.currentThread());
+                            if ((last != null && last > event.getValue())
+                                    || (thread != null && thread != Thread.currentThread())) {
+                                outOfOrder.set(true);
+                            }
+                            latch.countDown();
+                        })
+                        .build(),
+                event -> Long.hashCode(event.getValue() % keys));
+        sharded.start();
+        for (int i = 0; i < keys * perKey; i++) {
+            sharded.onEvent(new LongEvent(i));
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        sharded.stop();
+        assertFalse(outOfOrder.get());
+        assertEquals(keys, lastByKey.size());
+    }
+
+    @Test
+    public void spreadsKeysOverAllShards() {
+        ShardedDisactor<LongEvent> sharded = new ShardedDisactor<>(
+                3,
+                shard -> Disactor.<LongEvent>builder().eventFactory(LongEvent::new).actor(event -> {
+                }).build(),
+                event -> 0);
+        boolean[] used = new boolean[3];
+        for (int key = 0; key < 100; key++) {
+            used[sharded.shardIndex(key)] = true;
+        }
+        assertTrue(used[0] && used[1] && used[2]);
+    }
+}
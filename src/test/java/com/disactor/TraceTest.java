@@ -0,0 +1,76 @@
+package com.disactor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TraceTest {
+
+    @Test
+    public void copyFromCopiesOnlyTheUsedPrefix() {
+        Trace from = new Trace(4);
+        from.add(1, 10);
+        from.add(2, 20);
+
+        Trace to = new Trace(4);
+        to.add(7, 70);
+        to.add(8, 80);
+        to.add(9, 90);
+        to.copyFrom(from);
+
+        assertEquals(2, to.size());
+        assertEquals(2, to.getSpanId(1));
+        assertEquals(20, to.getTimestamp(1));
+    }
+
+    @Test
+    public void addDropsEntriesBeyondTheDepth() {
+        Trace trace = new Trace(1);
+        assertTrue(trace.add(1, 10));
+        assertFalse(trace.add(2, 20));
+        assertEquals(1, trace.size());
+    }
+
+    @Test
+    public void copyFromTruncatesToTheShallowerDepth() {
+        Trace from = new Trace(3);
+        from.add(1, 10);
+        from.add(2, 20);
+        from.add(3, 30);
+
+        Trace to = new Trace(2);
+        to.copyFrom(from);
+
+        assertEquals(2, to.size());
+        assertEquals(2, to.getSpanId(1));
+    }
+
+    @Test
+    public void lazyTraceGrowsOnDemandUpToTheMaximumDepth() {
+        Trace trace = new Trace(6, Trace.Mode.LAZY);
+        assertEquals(0, trace.getCapacity());
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(trace.add(i, i * 10));
+        }
+        assertFalse(trace.add(6, 60));
+        assertEquals(6, trace.getCapacity());
+        assertEquals(50, trace.getTimestamp(5));
+    }
+
+    @Test
+    public void copyingAnUntracedEventDoesNotAllocate() {
+        Trace to = new Trace(1024, Trace.Mode.LAZY);
+        to.copyFrom(new Trace(1024, Trace.Mode.LAZY));
+        assertEquals(0, to.size());
+        assertEquals(0, to.getCapacity());
+
+        Trace from = new Trace(1024, Trace.Mode.LAZY);
+        from.add(1, 10);
+        to.copyFrom(from);
+        assertEquals(1, to.size());
+        assertEquals(4, to.getCapacity());
+    }
+}
@@ -0,0 +1,171 @@
+package com.disactor.ipc;
+
+import com.disactor.BatchAwareActor;
+import com.disactor.EventCodec;
+import com.disactor.sample.LongEvent;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.util.DaemonThreadFactory;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SharedMemoryTest {
+
+    static final EventCodec<LongEvent> CODEC = new EventCodec<LongEvent>() {
+        @Override
+        public void encode(LongEvent event, ByteBuffer to) {
+            to.putLong(event.getValue());
+        }
+
+        @Override
+        public void decode(ByteBuffer from, LongEvent to) {
+            to.setValue(from.getLong());
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void deliversInOrderAcrossWraps() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("ring");
+        int count = 10_000;
+        List<Long> received = new ArrayList<>();
+        SharedMemoryProducer<LongEvent> producer = new SharedMemoryProducer<>(path, 16, 16, CODEC);
+        SharedMemoryConsumer<LongEvent> consumer = new SharedMemoryConsumer<>(
+                path, 16, 16, CODEC, LongEvent::new, event -> received.add(event.getValue()));
+        consumer.start();
+        LongEvent event = new LongEvent();
+        for (int i = 0; i < count; i++) {
+            event.setValue(i);
+            producer.onEvent(event);
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (consumer.getSequence() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        consumer.stop();
+
+        assertEquals(count, received.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, (long) received.get(i));
+        }
+    }
+
+    @Test
+    public void tryOnEventFailsWhenFull() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("ring");
+        SharedMemoryProducer<LongEvent> producer = new SharedMemoryProducer<>(path, 16, 4, CODEC);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(producer.tryOnEvent(new LongEvent(i)));
+        }
+        assertFalse(producer.tryOnEvent(new LongEvent(4)));
+
+        List<Long> received = new ArrayList<>();
+        SharedMemoryConsumer<LongEvent> consumer = new SharedMemoryConsumer<>(
+                path, 16, 4, CODEC, LongEvent::new, event -> received.add(event.getValue()));
+        assertEquals(4, consumer.poll());
+        assertTrue(producer.tryOnEvent(new LongEvent(4)));
+        assertEquals(1, consumer.poll());
+        assertEquals(5, received.size());
+    }
+
+    @Test
+    public void batchStartFailuresGoToTheExceptionHandler() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("ring");
+        SharedMemoryProducer<LongEvent> producer = new SharedMemoryProducer<>(path, 16, 4, CODEC);
+        producer.onEvent(new LongEvent(1));
+        producer.onEvent(new LongEvent(2));
+
+        List<Long> received = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+        SharedMemoryConsumer<LongEvent> consumer = new SharedMemoryConsumer<>(
+                path, 16, 4, CODEC, LongEvent::new,
+                new BatchAwareActor<LongEvent>() {
+                    @Override
+                    public void onBatchStart(long batchSize) {
+                        throw new IllegalStateException("batch " + batchSize);
+                    }
+
+                    @Override
+                    public void onEvent(LongEvent event, long sequence, boolean endOfBatch) {
+                        received.add(event.getValue());
+                    }
+                },
+                new ExceptionHandler<LongEvent>() {
+                    @Override
+                    public void handleEventException(Throwable ex, long sequence, LongEvent event) {
+                        failures.add(ex);
+                    }
+
+                    @Override
+                    public void handleOnStartException(Throwable ex) {
+                    }
+
+                    @Override
+                    public void handleOnShutdownException(Throwable ex) {
+                    }
+                },
+                DaemonThreadFactory.INSTANCE);
+        assertEquals(2, consumer.poll());
+        assertEquals(1, failures.size());
+        assertEquals(Arrays.asList(1L, 2L), received);
+    }
+
+    @Test
+    public void concurrentCreatorsAgreeOnTheLayout() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            Path path = folder.getRoot().toPath().resolve("ring-" + i);
+            AtomicInteger rejected = new AtomicInteger();
+            CyclicBarrier barrier = new CyclicBarrier(2);
+            List<Thread> threads = new ArrayList<>();
+            for (int slots : new int[]{4, 8}) {
+                Thread thread = new Thread(() -> {
+                    try {
+                        barrier.await();
+                        new SharedMemoryProducer<>(path, 16, slots, CODEC).close();
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(1, rejected.get());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void aClosedProducerCannotPublish() throws Exception {
+        SharedMemoryProducer<LongEvent> producer = new SharedMemoryProducer<>(
+                folder.getRoot().toPath().resolve("ring"), 16, 4, CODEC);
+        producer.close();
+        producer.tryOnEvent(new LongEvent(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMismatchedLayout() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("ring");
+        new SharedMemoryProducer<>(path, 16, 4, CODEC);
+        new SharedMemoryConsumer<>(path, 16, 8, CODEC, LongEvent::new, event -> {
+        });
+    }
+
+}
@@ -0,0 +1,141 @@
+package com.disactor.journal;
+
+import com.disactor.Disactor;
+import com.disactor.EventCodec;
+import com.disactor.sample.LongEvent;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JournalTest {
+
+    private static final EventCodec<LongEvent> CODEC = new EventCodec<LongEvent>() {
+        @Override
+        public void encode(LongEvent event, ByteBuffer to) {
+            to.putLong(event.getValue());
+        }
+
+        @Override
+        public void decode(ByteBuffer from, LongEvent to) {
+            to.setValue(from.getLong());
+        }
+    };
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void journalsAcrossSegmentsAndReplays() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        int count = 1000;
+        CountDownLatch latch = new CountDownLatch(count);
+        Journal<LongEvent> journal = new Journal<>(directory, 4096, CODEC, FsyncPolicy.PER_BATCH);
+        Disactor<LongEvent> disactor = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .bufferSize(64)
+                .actor(journal)
+                .actor(event -> latch.countDown())
+                .build();
+        disactor.start();
+        LongEvent event = new LongEvent();
+        for (int i = 0; i < count; i++) {
+            event.setValue(i * 10L);
+            disactor.onEvent(event);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        disactor.stop();
+        journal.close();
+
+        Journal<LongEvent> reopened = new Journal<>(directory, 4096, CODEC, FsyncPolicy.NONE);
+        assertEquals(count, reopened.getNextSequence());
+        reopened.append(new LongEvent(-1));
+        reopened.close();
+
+        List<Long> replayed = new ArrayList<>();
+        long next = Journal.replay(directory, 500, CODEC, new LongEvent(), e -> replayed.add(e.getValue()));
+        assertEquals(count + 1, next);
+        assertEquals(count - 500 + 1, replayed.size());
+        assertEquals(5000L, (long) replayed.get(0));
+        assertEquals(9990L, (long) replayed.get(count - 500 - 1));
+        assertEquals(-1L, (long) replayed.get(count - 500));
+    }
+
+    @Test
+    public void dropsATornTailOnReopen() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        Journal<LongEvent> journal = new Journal<>(directory, 4096, CODEC, FsyncPolicy.NONE);
+        for (int i = 0; i < 3; i++) {
+            journal.append(new LongEvent(i));
+        }
+        journal.close();
+        Path segment = directory.resolve("journal-00000000000000000000.dat");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // a record header of the right sequence whose payload never made it to disk
+            ByteBuffer torn = ByteBuffer.allocate(64).order(ByteOrder.nativeOrder());
+            torn.putInt(24).putInt(0x1234).putLong(3).putLong(99).putInt(40).putLong(-1).position(64).flip();
+            channel.write(torn, 3 * 24);
+        }
+
+        Journal<LongEvent> reopened = new Journal<>(directory, 4096, CODEC, FsyncPolicy.NONE);
+        assertEquals(3, reopened.getNextSequence());
+        reopened.append(new LongEvent(30));
+        reopened.close();
+
+        List<Long> replayed = new ArrayList<>();
+        assertEquals(4, Journal.replay(directory, 0, CODEC, new LongEvent(), e -> replayed.add(e.getValue())));
+        assertEquals(Arrays.asList(0L, 1L, 2L, 30L), replayed);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer tail = ByteBuffer.allocate(64);
+            channel.read(tail, 4 * 24);
+            tail.flip();
+            while (tail.hasRemaining()) {
+                assertEquals(0, tail.get());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsReopeningWithAnotherSegmentSize() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        Journal<LongEvent> journal = new Journal<>(directory, 4096, CODEC, FsyncPolicy.NONE);
+        journal.append(new LongEvent(1));
+        journal.close();
+        new Journal<>(directory, 8192, CODEC, FsyncPolicy.NONE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void periodicFsyncNeedsAnInterval() throws Exception {
+        new Journal<>(folder.getRoot().toPath(), 4096, CODEC, FsyncPolicy.PERIODIC);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsEventsLargerThanASegment() throws Exception {
+        EventCodec<LongEvent> oversized = new EventCodec<LongEvent>() {
+            @Override
+            public void encode(LongEvent event, ByteBuffer to) {
+                to.put(new byte[64]);
+            }
+
+            @Override
+            public void decode(ByteBuffer from, LongEvent to) {
+            }
+        };
+        Journal<LongEvent> journal = new Journal<>(folder.getRoot().toPath(), 32, oversized, FsyncPolicy.NONE);
+        journal.append(new LongEvent(1));
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.disactor.lazy;
+
+import com.disactor.Disactor;
+import com.disactor.OverflowPolicy;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DynamicDisactorFactoryTest {
+
+    @Test
+    public void callsOnTheProxyAreReplayedOnTheActorThread() throws Exception {
+        CountDownLatch latch = new CountDownLatch(2);
+        List<String> calls = new ArrayList<>();
+        Thread caller = Thread.currentThread();
+        List<Thread> threads = new ArrayList<>();
+        Quotes target = new Quotes() {
+            @Override
+            public void quote(String symbol, long id, double bid, float ask, int size, boolean firm, char side) {
+                calls.add(symbol + " " + id + " " + bid + " " + ask + " " + size + " " + firm + " " + side);
+                threads.add(Thread.currentThread());
+                latch.countDown();
+            }
+
+            @Override
+            public void cancel(long id, String... reasons) {
+                calls.add("cancel " + id + " " + String.join(",", reasons));
+                threads.add(Thread.currentThread());
+                latch.countDown();
+            }
+        };
+
+        DynamicDisactorFactory<Quotes> factory = new DynamicDisactorFactory<>(Quotes.class, target);
+        Quotes quotes = factory.getObject();
+        quotes.quote("ABC", Long.MAX_VALUE, 1.25, -0.5f, -7, true, 'B');
+        quotes.cancel(3, "late", "stale");
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        factory.stop();
+        assertEquals("ABC " + Long.MAX_VALUE + " 1.25 -0.5 -7 true B", calls.get(0));
+        assertEquals("cancel 3 late,stale", calls.get(1));
+        assertNotSame(caller, threads.get(0));
+    }
+
+    @Test
+    public void proxyCallsFollowTheOverflowPolicyAndReleaseTheirArguments() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch handled = new CountDownLatch(4);
+        AtomicInteger calls = new AtomicInteger();
+        Quotes target = new Quotes() {
+            @Override
+            public void quote(String symbol, long id, double bid, float ask, int size, boolean firm, char side) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                calls.incrementAndGet();
+                handled.countDown();
+            }
+
+            @Override
+            public void cancel(long id, String... reasons) {
+            }
+        };
+        Disactor.Builder<InvocationEvent> builder = Disactor.<InvocationEvent>builder()
+                .bufferSize(4)
+                .overflowPolicy(OverflowPolicy.DROP_NEWEST);
+        DynamicDisactorFactory<Quotes> factory = new DynamicDisactorFactory<>(Quotes.class, target, builder);
+        Quotes quotes = factory.getObject();
+        for (int i = 0; i < 10; i++) {
+            quotes.quote("ABC", i, 1, 1, 1, true, 'B');
+        }
+        Disactor<InvocationEvent> disactor = factory.getDisactor();
+        assertTrue(disactor.getRejectedCount() > 0);
+        release.countDown();
+        assertTrue(handled.await(5, TimeUnit.SECONDS));
+        factory.stop();
+
+        for (int i = 0; i < 4; i++) {
+            assertNull(disactor.getRingBuffer().get(i).getObject(0));
+        }
+        // the first factory did not add its dispatcher to the builder
+        CountDownLatch cancelled = new CountDownLatch(1);
+        DynamicDisactorFactory<Quotes> other = new DynamicDisactorFactory<>(Quotes.class, new Quotes() {
+            @Override
+            public void quote(String symbol, long id, double bid, float ask, int size, boolean firm, char side) {
+            }
+
+            @Override
+            public void cancel(long id, String... reasons) {
+                cancelled.countDown();
+            }
+        }, builder);
+        int handledByFirst = calls.get();
+        other.getObject().quote("ABC", 0, 1, 1, 1, true, 'B');
+        other.getObject().cancel(0);
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        other.stop();
+        assertEquals(handledByFirst, calls.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMethodsWithReturnValues() {
+        new DynamicDisactorFactory<>(Comparable.class, null).getObject();
+    }
+
+    @Test
+    public void rejectsMethodsWithNonPublicParameterTypes() {
+        try {
+            new DynamicDisactorFactory<>(Fills.class, null).getObject();
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("must be public"));
+        }
+    }
+
+    public interface Quotes {
+
+        void quote(String symbol, long id, double bid, float ask, int size, boolean firm, char side);
+
+        void cancel(long id, String... reasons);
+    }
+
+    public interface Fills {
+
+        void fill(Fill[] fills);
+    }
+
+    static class Fill {
+    }
+}
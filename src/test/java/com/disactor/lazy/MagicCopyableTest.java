@@ -0,0 +1,84 @@
+package com.disactor.lazy;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class MagicCopyableTest {
+
+    @Test
+    public void copiesFieldsOfTheWholeHierarchy() {
+        Order from = new Order();
+        from.id = 42;
+        from.price = 1.5;
+        from.symbol = "ABC";
+        from.quantity = 7;
+        from.getTrace().add(3, 30);
+
+        Order to = new Order();
+        to.copyFrom(from);
+
+        assertEquals(42, to.id);
+        assertEquals(1.5, to.price, 0);
+        assertSame("ABC", to.symbol);
+        assertEquals(7, to.quantity);
+        assertNotSame(from.getTrace(), to.getTrace());
+        assertEquals(1, to.getTrace().size());
+        assertEquals(30, to.getTrace().getTimestamp(0));
+    }
+
+    @Test
+    public void copiesNonPublicClasses() {
+        Fill from = new Fill();
+        from.price = 2.5;
+        Fill to = new Fill();
+        to.copyFrom(from);
+        assertEquals(2.5, to.price, 0);
+    }
+
+    @Test
+    public void copiesFinalArraysElementByElement() {
+        Quote from = new Quote();
+        from.prices[0] = 1.5;
+        from.prices[2] = 3.5;
+        Quote to = new Quote();
+        to.prices[1] = 9;
+        double[] prices = to.prices;
+        to.copyFrom(from);
+        assertSame(prices, to.prices);
+        assertArrayEquals(new double[]{1.5, 0, 3.5}, to.prices, 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsFinalFieldsItCannotCopyInto() {
+        new Book();
+    }
+
+    static class Fill extends MagicCopyable<Fill> {
+        private double price;
+    }
+
+    static class Quote extends MagicCopyable<Quote> {
+        private final double[] prices = new double[3];
+    }
+
+    static class Book extends MagicCopyable<Book> {
+        private final List<Order> orders = new ArrayList<>();
+    }
+
+    public static class BaseOrder<T extends BaseOrder<T>> extends MagicEvent<T> {
+        long id;
+        double price;
+    }
+
+    public static class Order extends BaseOrder<Order> {
+        String symbol;
+        private int quantity;
+    }
+}
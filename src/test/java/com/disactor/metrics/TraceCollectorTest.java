@@ -0,0 +1,94 @@
+package com.disactor.metrics;
+
+import com.disactor.Disactor;
+import com.disactor.Trace;
+import com.disactor.sample.LongEvent;
+import com.lmax.disruptor.RingBuffer;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TraceCollectorTest {
+
+    @Test
+    public void stampsEveryHopOfAChain() throws Exception {
+        TraceCollector collector = new TraceCollector(2);
+        CountDownLatch latch = new CountDownLatch(10);
+        AtomicReference<long[]> lastSpans = new AtomicReference<>();
+        Disactor<LongEvent> second = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .tracing(1, collector)
+                .actor(event -> {
+                    Trace trace = event.getTrace();
+                    long[] spans = new long[trace.size()];
+                    for (int i = 0; i < spans.length; i++) {
+                        spans[i] = trace.getSpanId(i);
+                    }
+                    lastSpans.set(spans);
+                    latch.countDown();
+                })
+                .build();
+        Disactor<LongEvent> first = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .tracing(0, collector)
+                .actor(second)
+                .build();
+        second.start();
+        first.start();
+        for (int i = 0; i < 10; i++) {
+            first.onEvent(new LongEvent(i));
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        first.stop();
+        second.stop();
+        long[] spans = lastSpans.get();
+        assertEquals(4, spans.length);
+        assertEquals(TraceCollector.enqueueSpan(0), spans[0]);
+        assertEquals(TraceCollector.dequeueSpan(0), spans[1]);
+        assertEquals(TraceCollector.enqueueSpan(1), spans[2]);
+        assertEquals(TraceCollector.dequeueSpan(1), spans[3]);
+        assertEquals(10, collector.getQueueTime(0).getCount());
+        assertEquals(10, collector.getQueueTime(1).getCount());
+        assertTrue(collector.getSinceOrigin(1).getMax() >= collector.getQueueTime(1).getMax());
+    }
+
+    @Test
+    public void slotsWrittenThroughTheRingBufferDoNotPileUpEntries() throws Exception {
+        CountDownLatch latch = new CountDownLatch(20);
+        AtomicReference<Integer> maxSize = new AtomicReference<>(0);
+        Disactor<LongEvent> disactor = Disactor.<LongEvent>builder()
+                .eventFactory(LongEvent::new)
+                .bufferSize(4)
+                .tracing(0, null)
+                .actor(event -> {
+                    maxSize.set(Math.max(maxSize.get(), event.getTrace().size()));
+                    latch.countDown();
+                })
+                .build();
+        disactor.start();
+        RingBuffer<LongEvent> ringBuffer = disactor.getRingBuffer();
+        for (int i = 0; i < 20; i++) {
+            long seq = ringBuffer.next();
+            ringBuffer.get(seq).setValue(i);
+            ringBuffer.publish(seq);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        disactor.stop();
+        assertEquals(1, (int) maxSize.get());
+    }
+
+    @Test
+    public void encodesActorIdAndPhaseInTheSpan() {
+        assertEquals(7, TraceCollector.actorId(TraceCollector.dequeueSpan(7)));
+        assertTrue(TraceCollector.isDequeue(TraceCollector.dequeueSpan(7)));
+        assertFalse(TraceCollector.isDequeue(TraceCollector.enqueueSpan(7)));
+    }
+}
@@ -0,0 +1,97 @@
+package com.disactor.offheap;
+
+import com.disactor.Disactor;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapEventTest {
+
+    @Test
+    public void slotsAreReadAndWrittenInPlace() throws Exception {
+        int count = 100;
+        List<String> received = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(count);
+        Disactor<Quote> disactor = Disactor.<Quote>builder()
+                .eventFactory(new OffHeapEventFactory<>(Quote.SIZE, 16, Quote::new))
+                .bufferSize(16)
+                .actor(quote -> {
+                    received.add(quote.getId() + "@" + quote.getPrice() + (quote.isFirm() ? "!" : ""));
+                    latch.countDown();
+                })
+                .build();
+        disactor.start();
+        Quote quote = new Quote();
+        for (int i = 0; i < count; i++) {
+            quote.setId(i);
+            quote.setPrice(i / 4.0);
+            quote.setFirm(i % 2 == 0);
+            disactor.onEvent(quote);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        disactor.stop();
+        assertEquals("0@0.0!", received.get(0));
+        assertEquals("99@24.75", received.get(99));
+    }
+
+    @Test
+    public void slotsDoNotOverlap() {
+        OffHeapEventFactory<Quote> factory = new OffHeapEventFactory<>(Quote.SIZE, 3, Quote::new);
+        Quote first = factory.newInstance();
+        Quote second = factory.newInstance();
+        first.setId(1);
+        first.setFirm(true);
+        second.setId(2);
+        assertEquals(1, first.getId());
+        assertTrue(first.isFirm());
+        assertEquals(Quote.SIZE, second.size());
+    }
+
+    static class Quote extends OffHeapEvent<Quote> {
+
+        static final int ID = 0;
+        static final int PRICE = 8;
+        static final int FIRM = 16;
+        static final int SIZE = 17;
+
+        Quote(ByteBuffer memory) {
+            super(memory);
+        }
+
+        Quote() {
+            super(SIZE);
+        }
+
+        long getId() {
+            return memory().getLong(ID);
+        }
+
+        void setId(long id) {
+            memory().putLong(ID, id);
+        }
+
+        double getPrice() {
+            return memory().getDouble(PRICE);
+        }
+
+        void setPrice(double price) {
+            memory().putDouble(PRICE, price);
+        }
+
+        boolean isFirm() {
+            return memory().get(FIRM) != 0;
+        }
+
+        void setFirm(boolean firm) {
+            memory().put(FIRM, (byte) (firm ? 1 : 0));
+        }
+    }
+}
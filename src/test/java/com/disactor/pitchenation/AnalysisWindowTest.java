@@ -0,0 +1,50 @@
+package com.disactor.pitchenation;
+
+import be.tarsos.dsp.AudioDispatcher;
+import be.tarsos.dsp.io.jvm.AudioDispatcherFactory;
+import be.tarsos.dsp.pitch.PitchProcessor.PitchEstimationAlgorithm;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class AnalysisWindowTest {
+
+    @Test
+    public void parsesTheWindow() {
+        AnalysisWindow window = AnalysisWindow.parse("44100/2048/220");
+        assertEquals(44100, window.getSampleRate(), 0);
+        assertEquals(2048, window.getBufferSize());
+        assertEquals(1828, window.getOverlap());
+        assertEquals(4.99, window.getHopMillis(), 0.01);
+        assertEquals("44100/2048/220", window.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void hopCannotExceedTheBuffer() {
+        new AnalysisWindow(44100, 1024, 2048);
+    }
+
+    @Test
+    public void detectsTheNoteOnEveryHop() throws Exception {
+        AnalysisWindow window = new AnalysisWindow(44100, 1024, 256);
+        float[] signal = new float[44100 / 4];
+        for (int i = 0; i < signal.length; i++) {
+            signal[i] = (float) Math.sin(2 * Math.PI * Pitch.La4.getPitch() * i / 44100);
+        }
+        AtomicInteger frames = new AtomicInteger();
+        AtomicInteger matched = new AtomicInteger();
+        AudioDispatcher dispatcher = AudioDispatcherFactory.fromFloatArray(signal, 44100, window.getBufferSize(), window.getOverlap());
+        dispatcher.addAudioProcessor(window.newPitchProcessor(PitchEstimationAlgorithm.MPM, (result, event) -> {
+            frames.incrementAndGet();
+            if (PitchIndex.nearest(result.getPitch()) == Pitch.La4) {
+                matched.incrementAndGet();
+            }
+        }));
+        dispatcher.run();
+        assertEquals((signal.length - 1024) / 256 + 1, matched.get(), 1);
+        assertEquals(matched.get(), frames.get(), 1);
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.disactor.pitchenation;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.sound.sampled.SourceDataLine;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class NotePlayerTest {
+
+    private static final int CHUNK_BYTES = 256 * 2;
+    private static final int NOTE_BYTES = 44100 / 5 * 2;
+    private static final int NOTE_CHUNKS = (NOTE_BYTES + CHUNK_BYTES - 1) / CHUNK_BYTES;
+    private static final long NOTE_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private final AtomicLong now = new AtomicLong();
+    private final Semaphore writes = new Semaphore(0);
+    private final Semaphore entered = new Semaphore(0);
+    private final Semaphore chunks = new Semaphore(0);
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicInteger flushes = new AtomicInteger();
+    private final List<byte[]> started = new CopyOnWriteArrayList<>();
+    private NotePlayer notes;
+
+    /**
+     * A line without a sound card that takes one chunk per permit the test hands out in {@link #writes}.
+     */
+    private SourceDataLine line() {
+        return (SourceDataLine) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{SourceDataLine.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "write":
+                            entered.release();
+                            writes.acquire();
+                            if ((Integer) args[1] == 0) {
+                                started.add((byte[]) args[0]); // one rendered tone per pitch
+                            }
+                            int length = (Integer) args[2];
+                            written.addAndGet(length);
+                            chunks.release();
+                            return length;
+                        case "flush":
+                            flushes.incrementAndGet();
+                            return null;
+                        case "getBufferSize":
+                            return 2048 * 2;
+                        default:
+                            return null;
+                    }
+                });
+    }
+
+    @After
+    public void tearDown() {
+        if (notes != null) {
+            writes.release(1_000_000);
+            notes.close();
+        }
+    }
+
+    @Test
+    public void playsWithoutBlockingTheCaller() throws Exception {
+        notes = new NotePlayer(line(), 200, TimeUnit.MILLISECONDS, now::get);
+        notes.prepare(Pitch.La4);
+        now.set(1_000);
+        long end = notes.play(Pitch.La4); // returns while the line takes nothing
+        assertEquals(1_000 + notes.getLineLatencyNanos() + NOTE_NANOS, end);
+        assertTrue(notes.isPlaying());
+
+        long enqueuedEnd = notes.enqueue(Pitch.Do5);
+        assertEquals(end + NOTE_NANOS, enqueuedEnd);
+        now.set(enqueuedEnd);
+        assertFalse(notes.isPlaying());
+
+        writes.release(1_000_000);
+        awaitChunks(2 * NOTE_CHUNKS);
+        assertEquals(2 * NOTE_BYTES, written.get());
+        assertEquals(2, notes.getStartLatency().getCount());
+    }
+
+    @Test
+    public void aNewNoteCutsOffTheCurrentOne() throws Exception {
+        notes = new NotePlayer(line(), 200, TimeUnit.MILLISECONDS, now::get);
+        notes.play(Pitch.La4);
+        notes.enqueue(Pitch.Mi4);
+        writes.release(1);
+        assertTrue(entered.tryAcquire(2, 5, TimeUnit.SECONDS)); // the first chunk is written, the second waits
+
+        now.set(NOTE_NANOS / 4);
+        long end = notes.play(Pitch.Do5);
+        assertEquals(NOTE_NANOS / 4 + notes.getLineLatencyNanos() + NOTE_NANOS, end); // not after the cut off notes
+        writes.release(1_000_000);
+        awaitChunks(2 + NOTE_CHUNKS);
+        notes.enqueue(Pitch.La4); // would follow the cut off note if it was still queued
+        awaitChunks(NOTE_CHUNKS);
+
+        assertEquals(2 * CHUNK_BYTES + 2 * NOTE_BYTES, written.get());
+        assertEquals(3, started.size());
+        assertNotSame(started.get(0), started.get(1));
+        assertSame(started.get(0), started.get(2));
+        assertEquals(2, flushes.get()); // once when the first note starts, once to cut it off
+    }
+
+    @Test
+    public void aFullQueueDropsTheNewNote() throws Exception {
+        notes = new NotePlayer(line(), 200, TimeUnit.MILLISECONDS, now::get);
+        notes.play(Pitch.La4);
+        assertTrue(entered.tryAcquire(5, TimeUnit.SECONDS)); // the first note left the queue
+        long end = 0;
+        for (int i = 0; i < 16; i++) {
+            end = notes.enqueue(Pitch.Mi4);
+        }
+        assertEquals(end, notes.enqueue(Pitch.Do5));
+
+        writes.release(1_000_000);
+        awaitChunks(17 * NOTE_CHUNKS);
+        notes.enqueue(Pitch.La4);
+        awaitChunks(NOTE_CHUNKS);
+
+        assertEquals(18, started.size());
+        for (int i = 2; i < 17; i++) {
+            assertSame(started.get(1), started.get(i));
+        }
+        assertNotSame(started.get(0), started.get(1));
+        assertSame(started.get(0), started.get(17));
+        assertEquals(1, flushes.get()); // nothing was cut off
+    }
+
+    private void awaitChunks(int count) throws InterruptedException {
+        assertTrue(chunks.tryAcquire(count, 5, TimeUnit.SECONDS));
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.disactor.pitchenation;
+
+import be.tarsos.dsp.pitch.PitchDetectionResult;
+import be.tarsos.dsp.pitch.PitchProcessor.PitchEstimationAlgorithm;
+import com.disactor.Actor;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PitchEnsembleTest {
+
+    private static final long ALL = mask(PitchEnsemble.ALGORITHMS);
+
+    @Test
+    public void weightedMajorityOutvotesAnOctaveError() {
+        PitchEvent event = new PitchEvent(16);
+        estimate(event, PitchEstimationAlgorithm.YIN, 440, 0.9f);
+        estimate(event, PitchEstimationAlgorithm.MPM, 442, 0.95f);
+        estimate(event, PitchEstimationAlgorithm.FFT_YIN, 220, 0.99f);
+        estimate(event, PitchEstimationAlgorithm.DYNAMIC_WAVELET, 438, -1);
+        estimate(event, PitchEstimationAlgorithm.AMDF, -1, -1);
+
+        assertTrue(PitchEnsemble.vote(event, ALL, 2, new double[8]));
+        assertEquals(440.3, event.getPitch(), 0.5);
+        assertEquals((0.9 + 0.95 + 0.5) / 5, event.getProbability(), 1e-6);
+    }
+
+    @Test
+    public void noQuorumNoPitch() {
+        PitchEvent event = new PitchEvent(16);
+        estimate(event, PitchEstimationAlgorithm.YIN, 440, 0.9f);
+        estimate(event, PitchEstimationAlgorithm.MPM, 330, 0.9f);
+        estimate(event, PitchEstimationAlgorithm.FFT_YIN, -1, 0);
+        estimate(event, PitchEstimationAlgorithm.DYNAMIC_WAVELET, -1, -1);
+        estimate(event, PitchEstimationAlgorithm.AMDF, -1, -1);
+
+        assertFalse(PitchEnsemble.vote(event, ALL, 2, new double[8]));
+        assertEquals(-1, event.getPitch(), 0);
+        assertTrue(PitchEnsemble.vote(event, mask(PitchEstimationAlgorithm.MPM), 2, new double[8]));
+        assertEquals(330, event.getPitch(), 0.01);
+    }
+
+    @Test
+    public void detectorsAndVoteFollowTheAlgorithmsStampedIntoTheFrame() throws Exception {
+        AnalysisWindow window = new AnalysisWindow(44100, 1024, 512);
+        PitchEnsemble ensemble = new PitchEnsemble(window, 2);
+        PitchEvent event = new PitchEvent(window.getBufferSize());
+        for (int i = 0; i < event.getSamples().length; i++) {
+            event.getSamples()[i] = (float) Math.sin(2 * Math.PI * 440 * i / 44100);
+        }
+        event.setAlgorithms(mask(PitchEstimationAlgorithm.YIN, PitchEstimationAlgorithm.MPM));
+        // switched while the frame is in flight
+        ensemble.setAlgorithms(PitchEstimationAlgorithm.AMDF);
+
+        for (Actor<PitchEvent> detector : ensemble.getDetectors()) {
+            detector.onEvent(event);
+        }
+        assertTrue(event.getPitch(PitchEstimationAlgorithm.YIN) > 0);
+        assertTrue(event.getPitch(PitchEstimationAlgorithm.MPM) > 0);
+        assertEquals(-1, event.getPitch(PitchEstimationAlgorithm.AMDF), 0);
+        assertTrue(ensemble.vote(event));
+        assertEquals(440, event.getPitch(), 2);
+    }
+
+    private static void estimate(PitchEvent event, PitchEstimationAlgorithm algorithm, float pitch, float probability) {
+        PitchDetectionResult result = new PitchDetectionResult();
+        result.setPitch(pitch);
+        result.setPitched(pitch > 0);
+        result.setProbability(probability);
+        event.setEstimate(algorithm, result);
+    }
+
+    private static long mask(PitchEstimationAlgorithm... algorithms) {
+        long mask = 0;
+        for (PitchEstimationAlgorithm algorithm : algorithms) {
+            mask |= 1L << algorithm.ordinal();
+        }
+        return mask;
+    }
+
+}
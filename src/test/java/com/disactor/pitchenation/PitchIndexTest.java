@@ -0,0 +1,43 @@
+package com.disactor.pitchenation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PitchIndexTest {
+
+    @Test
+    public void everyPitchMapsToItselfWithinACent() {
+        for (Pitch pitch : Pitch.values()) {
+            assertSame(pitch, PitchIndex.nearest(pitch.getPitch()));
+            assertTrue(pitch + " " + PitchIndex.cents(pitch.getPitch(), pitch), Math.abs(PitchIndex.cents(pitch.getPitch(), pitch)) < 1);
+        }
+    }
+
+    @Test
+    public void toleranceIsHalfASemitoneInEveryOctave() {
+        double quarterToneUp = Math.pow(2, 0.4 / 12);
+        assertSame(Pitch.La0, PitchIndex.nearest(Pitch.La0.getPitch() * quarterToneUp));
+        assertSame(Pitch.La7, PitchIndex.nearest(Pitch.La7.getPitch() * quarterToneUp));
+        assertSame(Pitch.Li7, PitchIndex.nearest(Pitch.La7.getPitch() * Math.pow(2, 0.6 / 12)));
+        assertEquals(40, PitchIndex.cents(Pitch.La4.getPitch() * quarterToneUp, Pitch.La4), 0.01);
+        assertEquals(-50, PitchIndex.cents(Pitch.La4.getPitch() / Math.pow(2, 0.5 / 12), Pitch.La4), 0.01);
+    }
+
+    @Test
+    public void outOfRange() {
+        assertNull(PitchIndex.nearest(-1));
+        assertNull(PitchIndex.nearest(0));
+        assertNull(PitchIndex.nearest(Float.NaN));
+        assertNull(PitchIndex.nearest(10));
+        assertNull(PitchIndex.nearest(9000));
+        assertNull(PitchIndex.flat(Pitch.Do0));
+        assertNull(PitchIndex.sharp(Pitch.Si8));
+        assertSame(Pitch.Si3, PitchIndex.flat(Pitch.Do4));
+        assertSame(Pitch.Di4, PitchIndex.sharp(Pitch.Do4));
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.disactor.pitchenation;
+
+import be.tarsos.dsp.AudioDispatcher;
+import be.tarsos.dsp.AudioEvent;
+import be.tarsos.dsp.AudioProcessor;
+import be.tarsos.dsp.io.jvm.AudioDispatcherFactory;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PitchPipelineTest {
+
+    private static final AnalysisWindow WINDOW = new AnalysisWindow(44100, 1024, 512);
+
+    @Test
+    public void everyFrameIsDetectedAndMatched() throws Exception {
+        float[] signal = sine(Pitch.Mi4, 44100 / 4);
+        AtomicInteger frames = new AtomicInteger();
+        AtomicInteger matched = new AtomicInteger();
+        PitchPipeline pipeline = new PitchPipeline(WINDOW, new PitchEnsemble(WINDOW, 3), event -> {
+            if (event.getGuess() == Pitch.Mi4 && Math.abs(event.getCents()) < 10) {
+                matched.incrementAndGet();
+            }
+        }, event -> {
+        });
+        pipeline.start();
+        try {
+            AudioDispatcher dispatcher = AudioDispatcherFactory.fromFloatArray(signal, 44100, WINDOW.getBufferSize(), WINDOW.getOverlap());
+            dispatcher.addAudioProcessor(new AudioProcessor() {
+                @Override
+                public boolean process(AudioEvent audioEvent) {
+                    while (pipeline.getDisactor().getRingBuffer().remainingCapacity() == 0) {
+                        Thread.yield(); // the test wants every frame, the capture thread would drop it instead
+                    }
+                    frames.incrementAndGet();
+                    return pipeline.process(audioEvent);
+                }
+
+                @Override
+                public void processingFinished() {
+                }
+            });
+            dispatcher.run();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (pipeline.getMetrics().getHandledCount() < frames.get() && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(frames.get(), pipeline.getMetrics().getPublishedCount());
+            assertEquals(frames.get(), matched.get());
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    public void blockedPlaybackDropsFramesInsteadOfStallingCapture() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch greeted = new CountDownLatch(1);
+        RiddleGame game = new RiddleGame(Pitch.Do4, new Random(1));
+        PitchPipeline pipeline = new PitchPipeline(WINDOW, new PitchEnsemble(WINDOW, 2), game, event -> {
+            if (event.getKind() == PitchEvent.Kind.GREETING) {
+                greeted.countDown();
+                try {
+                    release.await(); // a note that takes a while to play
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            game.performed(event);
+        });
+        pipeline.start();
+        try {
+            pipeline.control(PitchEvent.Kind.GREETING);
+            assertTrue(greeted.await(5, TimeUnit.SECONDS));
+            AudioDispatcher dispatcher = AudioDispatcherFactory.fromFloatArray(sine(Pitch.La4, 44100), 44100, WINDOW.getBufferSize(), WINDOW.getOverlap());
+            AtomicInteger frames = new AtomicInteger();
+            dispatcher.addAudioProcessor(new AudioProcessor() {
+                @Override
+                public boolean process(AudioEvent audioEvent) {
+                    if (audioEvent.getFloatBuffer().length == WINDOW.getBufferSize()) {
+                        frames.incrementAndGet();
+                    }
+                    return pipeline.process(audioEvent);
+                }
+
+                @Override
+                public void processingFinished() {
+                }
+            });
+            long start = System.nanoTime();
+            dispatcher.run();
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            int capacity = pipeline.getDisactor().getRingBuffer().getBufferSize();
+            assertEquals(capacity, pipeline.getMetrics().getPublishedCount());
+            assertEquals(frames.get() - (capacity - 1), pipeline.getMetrics().getRejectedCount());
+        } finally {
+            release.countDown();
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    public void controlDoesNotWaitForAFullRing() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch greeted = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(40);
+        PitchPipeline pipeline = new PitchPipeline(WINDOW, new PitchEnsemble(WINDOW, 2), event -> {
+        }, event -> {
+            if (event.getKind() == PitchEvent.Kind.GREETING) {
+                greeted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            } else if (event.getKind() == PitchEvent.Kind.STOP) {
+                stopped.countDown();
+            }
+        });
+        pipeline.start();
+        try {
+            pipeline.control(PitchEvent.Kind.GREETING);
+            assertTrue(greeted.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 40; i++) { // more than the ring holds while playback is blocked
+                pipeline.control(PitchEvent.Kind.STOP);
+            }
+            assertEquals(40, stopped.getCount());
+            release.countDown();
+            assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            pipeline.stop();
+        }
+    }
+
+    private static float[] sine(Pitch pitch, int length) {
+        float[] signal = new float[length];
+        for (int i = 0; i < signal.length; i++) {
+            signal[i] = (float) Math.sin(2 * Math.PI * pitch.getPitch() * i / 44100);
+        }
+        return signal;
+    }
+
+}
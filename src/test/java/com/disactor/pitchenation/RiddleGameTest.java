@@ -0,0 +1,81 @@
+package com.disactor.pitchenation;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static com.disactor.pitchenation.PitchEvent.Cue.Type.GUESS;
+import static com.disactor.pitchenation.PitchEvent.Cue.Type.PLAY;
+import static com.disactor.pitchenation.PitchEvent.Cue.Type.RIDDLE;
+import static com.disactor.pitchenation.PitchEvent.Cue.Type.SOLVED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class RiddleGameTest {
+
+    private final RiddleGame game = new RiddleGame(Pitch.Do4, new Random(7));
+
+    @Test
+    public void solvingARiddleCuesTheNextOne() {
+        PitchEvent start = control(PitchEvent.Kind.START);
+        game.onEvent(start);
+        assertCues(start, RIDDLE, PLAY);
+        Pitch riddle = start.getCue(0).getPitch();
+        game.performed(start);
+
+        PitchEvent wrong = frame(riddle == Pitch.La3 ? Pitch.Si3 : Pitch.La3);
+        game.onEvent(wrong);
+        assertCues(wrong, GUESS, PLAY);
+        assertSame(riddle, wrong.getCue(1).getPitch());
+        game.performed(wrong);
+
+        PitchEvent right = frame(riddle.ordinal() + 12 < Pitch.values().length ? Pitch.values()[riddle.ordinal() + 12] : riddle);
+        game.onEvent(right);
+        assertCues(right, GUESS, PLAY, SOLVED, PLAY, RIDDLE, PLAY);
+        assertSame(riddle, right.getCue(1).getPitch());
+        assertSame(Pitch.Do4, right.getCue(3).getPitch());
+    }
+
+    @Test
+    public void ignoresWhatItHearsUntilItsNotesArePlayed() {
+        PitchEvent start = control(PitchEvent.Kind.START);
+        game.onEvent(start);
+
+        PitchEvent heard = frame(Pitch.La3);
+        game.onEvent(heard);
+        assertCues(heard);
+
+        game.performed(start);
+        game.onEvent(heard);
+        assertEquals(GUESS, heard.getCue(0).getType());
+    }
+
+    @Test
+    public void onlyShowsTheGuessWhenStopped() {
+        PitchEvent heard = frame(Pitch.La3);
+        game.onEvent(heard);
+        assertCues(heard, GUESS);
+        assertEquals(0, heard.getCueTicket());
+    }
+
+    private static PitchEvent control(PitchEvent.Kind kind) {
+        PitchEvent event = new PitchEvent(0);
+        event.setKind(kind);
+        return event;
+    }
+
+    private static PitchEvent frame(Pitch pitch) {
+        PitchEvent event = new PitchEvent(0);
+        event.setConsensus((float) pitch.getPitch(), 1);
+        event.setGuess(pitch, 0);
+        return event;
+    }
+
+    private static void assertCues(PitchEvent event, PitchEvent.Cue.Type... types) {
+        assertEquals(types.length, event.getCueCount());
+        for (int i = 0; i < types.length; i++) {
+            assertEquals(types[i], event.getCue(i).getType());
+        }
+    }
+
+}
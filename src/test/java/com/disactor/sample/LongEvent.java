@@ -0,0 +1,36 @@
+package com.disactor.sample;
+
+import com.disactor.Event;
+import com.disactor.Trace;
+
+public class LongEvent implements Event<LongEvent> {
+
+    private final Trace trace = new Trace(16, Trace.Mode.LAZY);
+    private long value;
+
+    public LongEvent() {
+    }
+
+    public LongEvent(long value) {
+        this.value = value;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+
+    @Override
+    public Trace getTrace() {
+        return trace;
+    }
+
+    @Override
+    public void copyFrom(LongEvent from) {
+        trace.copyFrom(from.getTrace());
+        this.value = from.value;
+    }
+}
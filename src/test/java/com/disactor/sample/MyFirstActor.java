@@ -0,0 +1,11 @@
+package com.disactor.sample;
+
+public class MyFirstActor implements MyFirstDisactor {
+
+    @Override
+    public void hello(String name, int times) {
+        for (int i = 0; i < times; i++) {
+            System.out.println("Hello " + name + " from " + Thread.currentThread().getName());
+        }
+    }
+}
@@ -1,4 +1,7 @@
 package com.disactor.sample;
 
-public class MyFirstDisactor {
+public interface MyFirstDisactor {
+
+    void hello(String name, int times);
+
 }
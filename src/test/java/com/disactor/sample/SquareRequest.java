@@ -0,0 +1,41 @@
+package com.disactor.sample;
+
+import com.disactor.Askable;
+import com.disactor.Event;
+import com.disactor.Promise;
+import com.disactor.Trace;
+
+public class SquareRequest implements Event<SquareRequest>, Askable<Long> {
+
+    private final Trace trace = new Trace(0);
+    private long value;
+    private Promise<Long> promise;
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+
+    @Override
+    public Promise<Long> getPromise() {
+        return promise;
+    }
+
+    @Override
+    public void setPromise(Promise<Long> promise) {
+        this.promise = promise;
+    }
+
+    @Override
+    public Trace getTrace() {
+        return trace;
+    }
+
+    @Override
+    public void copyFrom(SquareRequest from) {
+        this.value = from.value;
+    }
+}
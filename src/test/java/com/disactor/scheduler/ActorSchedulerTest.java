@@ -0,0 +1,134 @@
+package com.disactor.scheduler;
+
+import com.disactor.sample.LongEvent;
+import com.lmax.disruptor.IgnoreExceptionHandler;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ActorSchedulerTest {
+
+    @Test
+    public void manyMailboxesShareFewThreads() throws Exception {
+        int actors = 1000;
+        int events = 20;
+        ActorScheduler scheduler = ActorScheduler.fixed(2);
+        CountDownLatch latch = new CountDownLatch(actors * events);
+        List<List<Long>> received = new ArrayList<>();
+        List<Mailbox<LongEvent>> mailboxes = new ArrayList<>();
+        for (int i = 0; i < actors; i++) {
+            List<Long> values = new ArrayList<>();
+            received.add(values);
+            mailboxes.add(scheduler.mailbox(LongEvent::new, 4, event -> {
+                values.add(event.getValue());
+                latch.countDown();
+            }));
+        }
+        LongEvent event = new LongEvent();
+        for (int e = 0; e < events; e++) {
+            for (Mailbox<LongEvent> mailbox : mailboxes) {
+                event.setValue(e);
+                mailbox.onEvent(event);
+            }
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        scheduler.stop();
+        for (List<Long> values : received) {
+            assertEquals(events, values.size());
+            for (int e = 0; e < events; e++) {
+                assertEquals(e, (long) values.get(e));
+            }
+        }
+    }
+
+    @Test
+    public void runsOnlyWhenEventsArePending() {
+        List<Runnable> turns = new ArrayList<>();
+        List<Long> received = new ArrayList<>();
+        Mailbox<LongEvent> mailbox = new Mailbox<>(
+                LongEvent::new, 2, event -> received.add(event.getValue()), new IgnoreExceptionHandler(), turns::add, 64);
+
+        assertTrue(mailbox.tryOnEvent(new LongEvent(1)));
+        assertTrue(mailbox.tryOnEvent(new LongEvent(2)));
+        assertFalse(mailbox.tryOnEvent(new LongEvent(3)));
+        assertEquals(1, turns.size());
+
+        turns.remove(0).run();
+        assertEquals(2, received.size());
+        assertEquals(0, mailbox.getBacklog());
+        assertTrue(turns.isEmpty());
+
+        assertTrue(mailbox.tryOnEvent(new LongEvent(3)));
+        assertEquals(1, turns.size());
+    }
+
+    @Test
+    public void aRejectedTurnIsReportedAndRetriedByTheNextPublish() {
+        List<Runnable> turns = new ArrayList<>();
+        AtomicBoolean reject = new AtomicBoolean(true);
+        Executor executor = turn -> {
+            if (reject.get()) {
+                throw new RejectedExecutionException();
+            }
+            turns.add(turn);
+        };
+        List<Long> received = new ArrayList<>();
+        Mailbox<LongEvent> mailbox = new Mailbox<>(
+                LongEvent::new, 4, event -> received.add(event.getValue()), new IgnoreExceptionHandler(), executor, 64);
+
+        try {
+            mailbox.tryOnEvent(new LongEvent(1));
+            fail();
+        } catch (RejectedExecutionException expected) {
+            assertEquals(1, mailbox.getBacklog());
+        }
+
+        reject.set(false);
+        assertTrue(mailbox.tryOnEvent(new LongEvent(2)));
+        assertEquals(1, turns.size());
+        turns.remove(0).run();
+        assertEquals(Arrays.asList(1L, 2L), received);
+    }
+
+    @Test
+    public void aRejectedFollowUpTurnIsTakenByTheCurrentThread() {
+        List<Runnable> turns = new ArrayList<>();
+        AtomicBoolean reject = new AtomicBoolean(false);
+        Executor executor = turn -> {
+            if (reject.get()) {
+                throw new RejectedExecutionException();
+            }
+            turns.add(turn);
+        };
+        List<Long> received = new ArrayList<>();
+        Mailbox<LongEvent> mailbox = new Mailbox<>(
+                LongEvent::new, 4, event -> received.add(event.getValue()), new IgnoreExceptionHandler(), executor, 1);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(mailbox.tryOnEvent(new LongEvent(i)));
+        }
+        assertEquals(1, turns.size());
+
+        reject.set(true);
+        turns.remove(0).run();
+        assertEquals(Arrays.asList(0L, 1L, 2L), received);
+        assertEquals(0, mailbox.getBacklog());
+
+        reject.set(false);
+        assertTrue(mailbox.tryOnEvent(new LongEvent(3)));
+        assertEquals(1, turns.size());
+    }
+
+}
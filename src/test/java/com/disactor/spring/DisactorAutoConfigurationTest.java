@@ -0,0 +1,103 @@
+package com.disactor.spring;
+
+import com.disactor.Actor;
+import com.disactor.Disactor;
+import com.disactor.metrics.DisactorMetrics;
+import com.disactor.sample.LongEvent;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DisactorAutoConfigurationTest {
+
+    @Configuration
+    static class Actors {
+
+        final CountDownLatch latch = new CountDownLatch(3);
+
+        @Bean
+        @DisactorActor(event = LongEvent.class)
+        public Actor<LongEvent> counter() {
+            return event -> latch.countDown();
+        }
+
+        @Bean
+        public Producer producer() {
+            return new Producer();
+        }
+    }
+
+    static class Producer {
+
+        @Autowired
+        Disactor<LongEvent> counterDisactor;
+    }
+
+    @Test
+    public void annotatedActorGetsAStartedDisactorConfiguredFromProperties() throws Exception {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("disactor.actors.counterDisactor.buffer-size", "64");
+        properties.put("management.endpoints.web.exposure.include", "disactor");
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+        context.register(DisactorAutoConfiguration.class, Actors.class);
+        context.refresh();
+
+        Disactor<LongEvent> disactor = context.getBean(Producer.class).counterDisactor;
+        assertEquals(64, disactor.getRingBuffer().getBufferSize());
+        for (int i = 0; i < 3; i++) {
+            disactor.onEvent(new LongEvent(i));
+        }
+        assertTrue(context.getBean(Actors.class).latch.await(5, TimeUnit.SECONDS));
+
+        Map<String, DisactorMetrics> metrics = context.getBean(DisactorEndpoint.class).disactors();
+        assertEquals(Collections.singleton("counterDisactor"), metrics.keySet());
+        assertEquals(3, metrics.get("counterDisactor").getPublishedCount());
+
+        DisactorLifecycle lifecycle = context.getBean(DisactorLifecycle.class);
+        assertTrue(lifecycle.isRunning());
+        context.close();
+        assertFalse(lifecycle.isRunning());
+    }
+
+    @Test
+    public void failsToStartWhenTheCpusCannotBePinned() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("disactor.actors.counterDisactor.cpus", "4095");
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+        context.register(DisactorAutoConfiguration.class, Actors.class);
+        try {
+            context.refresh();
+            fail();
+        } catch (RuntimeException expected) {
+            assertTrue(isNotPinned(expected));
+        } finally {
+            context.close();
+        }
+    }
+
+    private static boolean isNotPinned(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IllegalStateException && cause.getMessage().contains("not pinned")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}